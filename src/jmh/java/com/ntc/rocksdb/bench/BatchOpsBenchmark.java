@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb.bench;
+
+import com.ntc.rocksdb.RDBSingleConnection;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Batched put/delete and getList of RDBSingleConnection, one operation is a
+ * whole batch. Batches are built in setup so only the call is measured.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchOpsBenchmark {
+
+    private static final int BATCHES = 64;
+
+    @Param({"100000"})
+    public int records;
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    @Param({"16", "256"})
+    public int valueSize;
+
+    @Param({Dataset.UNIFORM, Dataset.ZIPFIAN})
+    public String distribution;
+
+    private Path dir;
+    private RDBSingleConnection conn;
+    private final List<Map<String, String>> listMap = new ArrayList<>();
+    private final List<Map<byte[], byte[]>> listMapByte = new ArrayList<>();
+    private final List<List<String>> listKeys = new ArrayList<>();
+    private final List<List<byte[]>> listByteKeys = new ArrayList<>();
+    private final List<byte[][]> listArrKeys = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Dataset.newDbDir("batch");
+        conn = RDBSingleConnection.getInstance(dir.toString());
+        Dataset data = new Dataset(records, valueSize, distribution);
+        data.load(conn);
+        for (int b = 0; b < BATCHES; b++) {
+            Map<String, String> m = new LinkedHashMap<>();
+            Map<byte[], byte[]> mb = new LinkedHashMap<>();
+            List<String> keys = new ArrayList<>();
+            List<byte[]> bkeys = new ArrayList<>();
+            for (int i = 0; i < batchSize; i++) {
+                int k = data.next();
+                m.put(data.key(k), data.value());
+                mb.put(data.byteKey(k), data.byteValue());
+                keys.add(data.key(k));
+                bkeys.add(data.byteKey(k));
+            }
+            listMap.add(m);
+            listMapByte.add(mb);
+            listKeys.add(keys);
+            listByteKeys.add(bkeys);
+            listArrKeys.add(bkeys.toArray(new byte[0][]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        conn.close();
+        Dataset.deleteDir(dir);
+    }
+
+    private static int pick() {
+        return ThreadLocalRandom.current().nextInt(BATCHES);
+    }
+
+    @Benchmark
+    public void putBatch() throws Exception {
+        conn.putBatch(listMap.get(pick()));
+    }
+
+    @Benchmark
+    public void putBatchByte() throws Exception {
+        conn.putBatchByte(listMapByte.get(pick()));
+    }
+
+    @Benchmark
+    public void deleteBatch() throws Exception {
+        conn.deleteBatch(listKeys.get(pick()));
+    }
+
+    @Benchmark
+    public void deleteBatchByte() throws Exception {
+        conn.deleteBatchByte(listByteKeys.get(pick()));
+    }
+
+    @Benchmark
+    public Map<String, String> getList() throws Exception {
+        return conn.getList(listKeys.get(pick()));
+    }
+
+    @Benchmark
+    public Map<byte[], byte[]> getListByte() throws Exception {
+        return conn.getListByte(listByteKeys.get(pick()));
+    }
+
+    @Benchmark
+    public byte[][] getListByteArray() throws Exception {
+        return conn.getListByte(listArrKeys.get(pick()));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb.bench;
+
+import com.ntc.rocksdb.Codecs;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Codecs.STRING encoding into heap and direct buffers, the path TypedStore
+ * uses for its per-thread direct buffers. Setup fails when encoding into a
+ * direct buffer allocates; run with -prof gc to see gc.alloc.rate.norm.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    private static final int ALLOCATION_CHECK_LOOPS = 100000;
+
+    @Param({"8", "256"})
+    public int stringSize;
+
+    private String str;
+    private ByteBuffer heap;
+    private ByteBuffer direct;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < stringSize; i++) {
+            // mix of 1, 2 and 3 byte UTF-8 chars
+            sb.append(i % 5 == 0 ? '\u00e9' : i % 7 == 0 ? '\u4e2d' : (char) ('a' + i % 26));
+        }
+        str = sb.toString();
+        heap = ByteBuffer.allocate(Codecs.STRING.encodedSize(str));
+        direct = ByteBuffer.allocateDirect(Codecs.STRING.encodedSize(str));
+        checkNoAllocation();
+    }
+
+    /**
+     * Bytes allocated by this thread over a loop of direct encodes, after a
+     * warm up loop, must stay below one byte per call.
+     */
+    private void checkNoAllocation() {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!mx.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        long tid = Thread.currentThread().getId();
+        for (int i = 0; i < ALLOCATION_CHECK_LOOPS; i++) {
+            encodeDirect();
+        }
+        long before = mx.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < ALLOCATION_CHECK_LOOPS; i++) {
+            encodeDirect();
+        }
+        long allocated = mx.getThreadAllocatedBytes(tid) - before;
+        if (allocated >= ALLOCATION_CHECK_LOOPS) {
+            throw new IllegalStateException("STRING.encode(direct ByteBuffer) allocates: "
+                    + allocated / ALLOCATION_CHECK_LOOPS + " bytes per call");
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer encodeHeap() {
+        heap.clear();
+        Codecs.STRING.encode(str, heap);
+        return heap;
+    }
+
+    @Benchmark
+    public ByteBuffer encodeDirect() {
+        direct.clear();
+        Codecs.STRING.encode(str, direct);
+        return direct;
+    }
+
+    @Benchmark
+    public byte[] getBytes() {
+        return Codecs.STRING.encode(str);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb.bench;
+
+import com.ntc.rocksdb.RDBSingleConnection;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * incInt/incLong (striped lock read-modify-write) against addCounter (merge)
+ * with 1, 8 and 64 threads. keys=1 is full contention on a single counter.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CounterBenchmark {
+
+    @Param({"1", "1024"})
+    public int keys;
+
+    private Path dir;
+    private RDBSingleConnection conn;
+    private String[] counterKeys;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Dataset.newDbDir("counter");
+        conn = RDBSingleConnection.getInstance(dir.toString());
+        counterKeys = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            counterKeys[i] = "counter" + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        conn.close();
+        Dataset.deleteDir(dir);
+    }
+
+    private String key() {
+        return counterKeys[ThreadLocalRandom.current().nextInt(keys)];
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int incInt01() throws Exception {
+        return conn.incInt(key(), 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int incInt08() throws Exception {
+        return conn.incInt(key(), 1);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public int incInt64() throws Exception {
+        return conn.incInt(key(), 1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long incLong01() throws Exception {
+        return conn.incLong(key(), 1L);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long incLong08() throws Exception {
+        return conn.incLong(key(), 1L);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long incLong64() throws Exception {
+        return conn.incLong(key(), 1L);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void addCounter01() throws Exception {
+        conn.addCounter(key(), 1L);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void addCounter08() throws Exception {
+        conn.addCounter(key(), 1L);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void addCounter64() throws Exception {
+        conn.addCounter(key(), 1L);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb.bench;
+
+import com.ntc.rocksdb.RDBSingleConnection;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keys and values shared by the benchmarks, with a uniform or scrambled
+ * zipfian (theta 0.99, as in YCSB) key distribution.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class Dataset {
+
+    public static final String UNIFORM = "uniform";
+    public static final String ZIPFIAN = "zipfian";
+    private static final double THETA = 0.99;
+
+    private final int records;
+    private final boolean zipfian;
+    private final String[] keys;
+    private final byte[][] bkeys;
+    private final String value;
+    private final byte[] bvalue;
+    // zipfian constants
+    private final double zetan;
+    private final double alpha;
+    private final double eta;
+
+    public Dataset(int records, int valueSize, String distribution) {
+        this.records = records;
+        this.zipfian = ZIPFIAN.equals(distribution);
+        this.keys = new String[records];
+        this.bkeys = new byte[records][];
+        for (int i = 0; i < records; i++) {
+            keys[i] = String.format("key%010d", i);
+            bkeys[i] = keys[i].getBytes(StandardCharsets.UTF_8);
+        }
+        Random rnd = new Random(42);
+        char[] cs = new char[valueSize];
+        for (int i = 0; i < valueSize; i++) {
+            cs[i] = (char) ('a' + rnd.nextInt(26));
+        }
+        this.value = new String(cs);
+        this.bvalue = value.getBytes(StandardCharsets.UTF_8);
+        double z = 0;
+        for (int i = 1; i <= records; i++) {
+            z += 1.0 / Math.pow(i, THETA);
+        }
+        this.zetan = z;
+        this.alpha = 1.0 / (1.0 - THETA);
+        double zeta2 = 1.0 + 1.0 / Math.pow(2, THETA);
+        this.eta = (1.0 - Math.pow(2.0 / records, 1.0 - THETA)) / (1.0 - zeta2 / zetan);
+    }
+
+    public int size() {
+        return records;
+    }
+
+    /**
+     * Next key index following the distribution, thread-safe.
+     */
+    public int next() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        if (!zipfian) {
+            return rnd.nextInt(records);
+        }
+        double u = rnd.nextDouble();
+        double uz = u * zetan;
+        long rank;
+        if (uz < 1.0) {
+            rank = 0;
+        } else if (uz < 1.0 + Math.pow(0.5, THETA)) {
+            rank = 1;
+        } else {
+            rank = (long) (records * Math.pow(eta * u - eta + 1, alpha));
+        }
+        // scramble so the hot keys are spread over the key space
+        long h = (rank + 1) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) Math.floorMod(h, (long) records);
+    }
+
+    public String key(int i) {
+        return keys[i];
+    }
+
+    public byte[] byteKey(int i) {
+        return bkeys[i];
+    }
+
+    public String value() {
+        return value;
+    }
+
+    public byte[] byteValue() {
+        return bvalue;
+    }
+
+    public void load(RDBSingleConnection conn) throws IOException {
+        Map<byte[], byte[]> batch = new LinkedHashMap<>();
+        for (int i = 0; i < records; i++) {
+            batch.put(bkeys[i], bvalue);
+            if (batch.size() == 1000) {
+                conn.putBatchByte(batch);
+                batch.clear();
+            }
+        }
+        conn.putBatchByte(batch);
+    }
+
+    public static Path newDbDir(String name) throws IOException {
+        return Files.createTempDirectory("ntc-jrocksdb-" + name);
+    }
+
+    public static void deleteDir(Path dir) throws IOException {
+        if (dir != null && dir.toFile().exists()) {
+            Files.walk(dir).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb.bench;
+
+import com.ntc.rocksdb.NRSerializer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Every NRSerializer method, allocating and offset variants.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NRSerializerBenchmark {
+
+    @Param({"8", "256"})
+    public int stringSize;
+
+    private final NRSerializer nrs = new NRSerializer();
+    private final byte[] dest = new byte[16];
+    private byte[] bBool;
+    private byte[] bInt;
+    private byte[] bLong;
+    private byte[] bFloat;
+    private byte[] bDouble;
+    private String str;
+    private byte[] bString;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < stringSize; i++) {
+            // mix of 1, 2 and 3 byte UTF-8 chars
+            sb.append(i % 5 == 0 ? '\u00e9' : i % 7 == 0 ? '\u4e2d' : (char) ('a' + i % 26));
+        }
+        str = sb.toString();
+        bString = nrs.serializeString(str);
+        bBool = nrs.serializeBool(true);
+        bInt = nrs.serializeInt(123456789);
+        bLong = nrs.serializeLong(1234567890123L);
+        bFloat = nrs.serializeFloat(3.14f);
+        bDouble = nrs.serializeDouble(2.718281828);
+    }
+
+    @Benchmark
+    public byte[] serializeBool() {
+        return nrs.serializeBool(true);
+    }
+
+    @Benchmark
+    public int serializeBoolOffset() {
+        return nrs.serializeBool(true, dest, 0);
+    }
+
+    @Benchmark
+    public boolean deserializeBool() {
+        return nrs.deserializeBool(bBool);
+    }
+
+    @Benchmark
+    public byte[] serializeInt() {
+        return nrs.serializeInt(123456789);
+    }
+
+    @Benchmark
+    public int serializeIntOffset() {
+        return nrs.serializeInt(123456789, dest, 0);
+    }
+
+    @Benchmark
+    public int deserializeInt() {
+        return nrs.deserializeInt(bInt);
+    }
+
+    @Benchmark
+    public byte[] serializeLong() {
+        return nrs.serializeLong(1234567890123L);
+    }
+
+    @Benchmark
+    public int serializeLongOffset() {
+        return nrs.serializeLong(1234567890123L, dest, 0);
+    }
+
+    @Benchmark
+    public long deserializeLong() {
+        return nrs.deserializeLong(bLong);
+    }
+
+    @Benchmark
+    public byte[] serializeFloat() {
+        return nrs.serializeFloat(3.14f);
+    }
+
+    @Benchmark
+    public int serializeFloatOffset() {
+        return nrs.serializeFloat(3.14f, dest, 0);
+    }
+
+    @Benchmark
+    public float deserializeFloat() {
+        return nrs.deserializeFloat(bFloat);
+    }
+
+    @Benchmark
+    public byte[] serializeDouble() {
+        return nrs.serializeDouble(2.718281828);
+    }
+
+    @Benchmark
+    public int serializeDoubleOffset() {
+        return nrs.serializeDouble(2.718281828, dest, 0);
+    }
+
+    @Benchmark
+    public double deserializeDouble() {
+        return nrs.deserializeDouble(bDouble);
+    }
+
+    @Benchmark
+    public byte[] serializeString() {
+        return nrs.serializeString(str);
+    }
+
+    @Benchmark
+    public String deserializeString() {
+        return nrs.deserializeString(bString);
+    }
+}
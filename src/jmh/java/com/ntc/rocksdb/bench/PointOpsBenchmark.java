@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb.bench;
+
+import com.ntc.rocksdb.RDBSingleConnection;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Single-key put/get/delete of RDBSingleConnection.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PointOpsBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int records;
+
+    @Param({"16", "256", "4096"})
+    public int valueSize;
+
+    @Param({Dataset.UNIFORM, Dataset.ZIPFIAN})
+    public String distribution;
+
+    private Path dir;
+    private RDBSingleConnection conn;
+    private Dataset data;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Dataset.newDbDir("point");
+        conn = RDBSingleConnection.getInstance(dir.toString());
+        data = new Dataset(records, valueSize, distribution);
+        data.load(conn);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        conn.close();
+        Dataset.deleteDir(dir);
+    }
+
+    @Benchmark
+    public String get() {
+        return conn.get(data.key(data.next()));
+    }
+
+    @Benchmark
+    public byte[] getByte() {
+        return conn.getByte(data.byteKey(data.next()));
+    }
+
+    @Benchmark
+    public int getByteBuffer() throws Exception {
+        ByteBuffer out = RDBSingleConnection.getBufferPool().valueBuffer(valueSize);
+        return conn.get(data.byteKey(data.next()), out);
+    }
+
+    @Benchmark
+    public void put() {
+        conn.put(data.key(data.next()), data.value());
+    }
+
+    @Benchmark
+    public void putByte() {
+        conn.putByte(data.byteKey(data.next()), data.byteValue());
+    }
+
+    @Benchmark
+    public void delete() {
+        conn.delete(data.key(data.next()));
+    }
+
+    @Benchmark
+    public void deleteByte() {
+        conn.deleteByte(data.byteKey(data.next()));
+    }
+}
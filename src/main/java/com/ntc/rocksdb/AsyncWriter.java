@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.rocksdb.RocksDB;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Group committer: single-key writes from many threads are queued and
+ * written by one thread as a single WriteBatch, so with sync enabled a
+ * whole group costs one fsync. The queue is bounded, callers block when
+ * it is full.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class AsyncWriter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncWriter.class);
+
+    private static final class Op {
+
+        final byte[] key;
+        final byte[] value;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Op(byte[] key, byte[] value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final RocksDB db;
+    private final AsyncWriterConfig config;
+    private final BlockingQueue<Op> queue;
+    private final WriteOptions writeOptions;
+    private final Thread thread;
+    private volatile boolean running = true;
+    /**
+     * Set by the writer thread before its final drain, ops queued after it
+     * are failed by submit.
+     */
+    private volatile boolean stopped;
+
+    public AsyncWriter(RocksDB db, AsyncWriterConfig config, String name) {
+        this.db = db;
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.writeOptions = new WriteOptions().setSync(config.isSync()).setDisableWAL(config.isDisableWAL());
+        this.thread = new Thread(this::runLoop, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public CompletableFuture<Void> put(byte[] key, byte[] value) {
+        return submit(new Op(key, value));
+    }
+
+    public CompletableFuture<Void> delete(byte[] key) {
+        return submit(new Op(key, null));
+    }
+
+    private CompletableFuture<Void> submit(Op op) {
+        if (!running) {
+            op.future.completeExceptionally(new IllegalStateException("AsyncWriter is closed"));
+            return op.future;
+        }
+        try {
+            queue.put(op);
+            // the final drain may have run before the put, nobody else will take it
+            if (stopped && queue.remove(op)) {
+                op.future.completeExceptionally(new IllegalStateException("AsyncWriter is closed"));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            op.future.completeExceptionally(ex);
+        }
+        return op.future;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private void runLoop() {
+        List<Op> group = new ArrayList<>(config.getMaxBatchCount());
+        try (WriteBatch batch = new WriteBatch()) {
+            while (running || !queue.isEmpty()) {
+                Op first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(config.getMaxDelayMicros());
+                long bytes = add(batch, group, first);
+                while (group.size() < config.getMaxBatchCount() && bytes < config.getMaxBatchBytes()) {
+                    Op op = queue.poll();
+                    if (op == null) {
+                        long wait = deadline - System.nanoTime();
+                        if (wait <= 0 || (op = queue.poll(wait, TimeUnit.NANOSECONDS)) == null) {
+                            break;
+                        }
+                    }
+                    bytes += add(batch, group, op);
+                }
+                flush(batch, group, bytes);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            logger.error("AsyncWriter.runLoop: ", ex);
+        } finally {
+            running = false;
+            stopped = true;
+            Op op;
+            while ((op = queue.poll()) != null) {
+                op.future.completeExceptionally(new IllegalStateException("AsyncWriter is closed"));
+            }
+        }
+    }
+
+    private static long add(WriteBatch batch, List<Op> group, Op op) {
+        group.add(op);
+        try {
+            if (op.value != null) {
+                batch.put(op.key, op.value);
+                return op.key.length + op.value.length;
+            }
+            batch.delete(op.key);
+        } catch (Exception ex) {
+            // Leave it to flush, the whole group fails together.
+            logger.error("AsyncWriter.add: ", ex);
+        }
+        return op.key.length;
+    }
+
+    private void flush(WriteBatch batch, List<Op> group, long bytes) {
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            db.write(writeOptions, batch);
+        } catch (Exception ex) {
+            error = ex;
+            logger.error("AsyncWriter.flush: ", ex);
+        }
+        AsyncWriterConfig.FlushListener listener = config.getFlushListener();
+        if (listener != null) {
+            try {
+                listener.onFlush(group.size(), bytes, System.nanoTime() - start, error);
+            } catch (Exception ex) {
+                logger.error("AsyncWriter.flushListener: ", ex);
+            }
+        }
+        for (Op op : group) {
+            if (error == null) {
+                op.future.complete(null);
+            } else {
+                op.future.completeExceptionally(error);
+            }
+        }
+        group.clear();
+        batch.clear();
+    }
+
+    /**
+     * Stop accepting writes, flush what is queued and release the native objects.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        writeOptions.close();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+/**
+ * Settings of the AsyncWriter group committer.
+ * A batch is flushed when it reaches maxBatchCount writes, maxBatchBytes
+ * of keys and values, or maxDelayMicros after its first write.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class AsyncWriterConfig {
+
+    /**
+     * Called by the writer thread after each flush, error is null on success.
+     */
+    public interface FlushListener {
+
+        void onFlush(int count, long bytes, long elapsedNanos, Throwable error);
+    }
+
+    private int maxBatchCount = 1024;
+    private long maxBatchBytes = 4L << 20;
+    private long maxDelayMicros = 200;
+    private int queueCapacity = 65536;
+    private boolean sync;
+    private boolean disableWAL;
+    private FlushListener flushListener;
+
+    public int getMaxBatchCount() {
+        return maxBatchCount;
+    }
+
+    public AsyncWriterConfig setMaxBatchCount(int maxBatchCount) {
+        this.maxBatchCount = maxBatchCount;
+        return this;
+    }
+
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    public AsyncWriterConfig setMaxBatchBytes(long maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+        return this;
+    }
+
+    public long getMaxDelayMicros() {
+        return maxDelayMicros;
+    }
+
+    public AsyncWriterConfig setMaxDelayMicros(long maxDelayMicros) {
+        this.maxDelayMicros = maxDelayMicros;
+        return this;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Pending writes allowed before callers block.
+     */
+    public AsyncWriterConfig setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    public boolean isSync() {
+        return sync;
+    }
+
+    /**
+     * fsync the WAL once per flushed batch.
+     */
+    public AsyncWriterConfig setSync(boolean sync) {
+        this.sync = sync;
+        return this;
+    }
+
+    public boolean isDisableWAL() {
+        return disableWAL;
+    }
+
+    public AsyncWriterConfig setDisableWAL(boolean disableWAL) {
+        this.disableWAL = disableWAL;
+        return this;
+    }
+
+    public FlushListener getFlushListener() {
+        return flushListener;
+    }
+
+    public AsyncWriterConfig setFlushListener(FlushListener flushListener) {
+        this.flushListener = flushListener;
+        return this;
+    }
+}
@@ -0,0 +1,490 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.rocksdb.EnvOptions;
+import org.rocksdb.IngestExternalFileOptions;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.SstFileWriter;
+import static org.rocksdb.util.ByteUtil.bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads a large unsorted stream of key/values by building SST files and
+ * ingesting them, bypassing WAL, memtable and most compaction work.
+ *
+ * add buffers entries up to the memory budget, then sorts them and spills a
+ * run file with a sparse key index. finish splits the key space into
+ * parallelism ranges from the run indexes, each range is merged from all
+ * runs and written by SstFileWriter on its own thread, and the files are
+ * ingested in one call. For equal keys the last added value wins.
+ * Not thread-safe, one loader per load.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class BulkLoader implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkLoader.class);
+
+    private static final int INDEX_INTERVAL = 1024;
+    private static final int ENTRY_OVERHEAD = 48;
+    private static final int IO_BUFFER = 1 << 16;
+    private static final String WORK_DIR_PREFIX = "bulkload-";
+    private static final Set<Path> activeWorkDirs = ConcurrentHashMap.newKeySet();
+
+    private final RDBSingleConnection conn;
+    private long memoryBudget = 64L << 20;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long targetFileSize = 256L << 20;
+    private File tempDir;
+
+    private final List<KV> buffer = new ArrayList<>();
+    private long bufferBytes;
+    private final List<Run> runs = new ArrayList<>();
+    private Path workDir;
+    private long fileCount;
+    private boolean finished;
+
+    /**
+     * A sorted spill file and every INDEX_INTERVAL-th key with its offset.
+     */
+    private static final class Run {
+
+        final int id;
+        final File file;
+        final List<byte[]> indexKeys = new ArrayList<>();
+        final List<Long> indexOffsets = new ArrayList<>();
+
+        Run(int id, File file) {
+            this.id = id;
+            this.file = file;
+        }
+
+        long seekOffset(byte[] from) {
+            if (from == null) {
+                return 0L;
+            }
+            int lo = 0;
+            int hi = indexKeys.size() - 1;
+            long rs = 0L;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (BytesUtil.compare(indexKeys.get(mid), from) <= 0) {
+                    rs = indexOffsets.get(mid);
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return rs;
+        }
+    }
+
+    private static final class RunReader implements Closeable {
+
+        final Run run;
+        final DataInputStream in;
+        byte[] key;
+        byte[] value;
+
+        RunReader(Run run, long offset) throws IOException {
+            this.run = run;
+            FileInputStream fis = new FileInputStream(run.file);
+            fis.getChannel().position(offset);
+            this.in = new DataInputStream(new BufferedInputStream(fis, IO_BUFFER));
+        }
+
+        boolean next() throws IOException {
+            int klen;
+            try {
+                klen = in.readInt();
+            } catch (EOFException ex) {
+                key = null;
+                value = null;
+                return false;
+            }
+            key = new byte[klen];
+            in.readFully(key);
+            value = new byte[in.readInt()];
+            in.readFully(value);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * TTL databases are rejected, ingested files would lack the TtlDB
+     * timestamp suffix on every value. Connections with a registered index
+     * are rejected too, here and again in finish: ingested files bypass
+     * index maintenance.
+     */
+    public BulkLoader(RDBSingleConnection conn) {
+        if (conn.getConfig().getTtlSeconds() > 0) {
+            throw new IllegalArgumentException("BulkLoader does not support TTL mode");
+        }
+        conn.checkNoIndexes("BulkLoader");
+        this.conn = conn;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Bytes of key/values kept in memory before a sorted run is spilled.
+     */
+    public BulkLoader setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public BulkLoader setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        return this;
+    }
+
+    public long getTargetFileSize() {
+        return targetFileSize;
+    }
+
+    public BulkLoader setTargetFileSize(long targetFileSize) {
+        this.targetFileSize = targetFileSize;
+        return this;
+    }
+
+    public File getTempDir() {
+        return tempDir;
+    }
+
+    /**
+     * Directory for runs and SST files, on the same filesystem as the
+     * database so ingestion can move files instead of copying them.
+     * Defaults to the sibling directory {@code <db directory>.bulkload}, never
+     * the live database directory. Work directories left there by a crashed
+     * load are deleted when the next load starts.
+     */
+    public BulkLoader setTempDir(File tempDir) {
+        this.tempDir = tempDir;
+        return this;
+    }
+
+    /**
+     * SST files ingested by finish.
+     */
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    private Path workDir() throws IOException {
+        if (workDir == null) {
+            File dir = tempDir != null ? tempDir : new File(new File(conn.getDbDirectory()).getAbsolutePath() + ".bulkload");
+            Files.createDirectories(dir.toPath());
+            deleteLeftovers(dir.toPath());
+            workDir = Files.createTempDirectory(dir.toPath(), WORK_DIR_PREFIX);
+            activeWorkDirs.add(workDir);
+        }
+        return workDir;
+    }
+
+    /**
+     * Remove work directories of loads that did not reach close(), the db
+     * directory lock keeps other processes out so only this process' active
+     * loaders are spared.
+     */
+    private static void deleteLeftovers(Path dir) throws IOException {
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, WORK_DIR_PREFIX + "*")) {
+            for (Path leftover : ds) {
+                if (!activeWorkDirs.contains(leftover)) {
+                    logger.info("BulkLoader: deleting leftover " + leftover);
+                    deleteDir(leftover);
+                }
+            }
+        }
+    }
+
+    private static void deleteDir(Path dir) throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    public void add(String key, String value) throws IOException {
+        add(bytes(key), bytes(value));
+    }
+
+    /**
+     * Queue a key/value, the arrays must not be modified afterwards.
+     */
+    public void add(byte[] key, byte[] value) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("BulkLoader is finished");
+        }
+        if (key == null || key.length == 0 || value == null) {
+            return;
+        }
+        buffer.add(new KV(key, value));
+        bufferBytes += key.length + value.length + ENTRY_OVERHEAD;
+        if (bufferBytes >= memoryBudget) {
+            spill();
+        }
+    }
+
+    private void spill() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        // stable sort, the last of equal keys is the newest
+        Collections.sort(buffer, new Comparator<KV>() {
+            @Override
+            public int compare(KV a, KV b) {
+                return BytesUtil.compare(a.getKey(), b.getKey());
+            }
+        });
+        Run run = new Run(runs.size(), workDir().resolve("run-" + runs.size()).toFile());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run.file), IO_BUFFER))) {
+            long offset = 0;
+            int written = 0;
+            for (int i = 0, n = buffer.size(); i < n; i++) {
+                KV kv = buffer.get(i);
+                if (i + 1 < n && BytesUtil.compare(kv.getKey(), buffer.get(i + 1).getKey()) == 0) {
+                    continue;
+                }
+                if (written++ % INDEX_INTERVAL == 0) {
+                    run.indexKeys.add(kv.getKey());
+                    run.indexOffsets.add(offset);
+                }
+                out.writeInt(kv.getKey().length);
+                out.write(kv.getKey());
+                out.writeInt(kv.getValue().length);
+                out.write(kv.getValue());
+                offset += 8 + kv.getKey().length + kv.getValue().length;
+            }
+        }
+        runs.add(run);
+        buffer.clear();
+        bufferBytes = 0;
+    }
+
+    /**
+     * Split points of the key space, quantiles of the sampled run index keys.
+     */
+    private List<byte[]> splitKeys() {
+        List<byte[]> samples = new ArrayList<>();
+        for (Run run : runs) {
+            samples.addAll(run.indexKeys);
+        }
+        Collections.sort(samples, BytesUtil.COMPARATOR);
+        List<byte[]> rs = new ArrayList<>();
+        for (int i = 1; i < parallelism && !samples.isEmpty(); i++) {
+            byte[] split = samples.get((int) ((long) samples.size() * i / parallelism));
+            if (rs.isEmpty() || BytesUtil.compare(rs.get(rs.size() - 1), split) < 0) {
+                rs.add(split);
+            }
+        }
+        return rs;
+    }
+
+    /**
+     * Sort, write and ingest everything added. Returns the number of
+     * distinct keys ingested.
+     */
+    public long finish() throws IOException, RocksDBException {
+        if (finished) {
+            throw new IllegalStateException("BulkLoader is finished");
+        }
+        conn.checkNoIndexes("BulkLoader");
+        finished = true;
+        spill();
+        if (runs.isEmpty()) {
+            return 0L;
+        }
+        List<byte[]> splits = splitKeys();
+        int nRanges = splits.size() + 1;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, nRanges));
+        List<Future<Long>> listFuture = new ArrayList<>();
+        final List<List<String>> listFiles = new ArrayList<>();
+        try {
+            for (int i = 0; i < nRanges; i++) {
+                final byte[] from = i == 0 ? null : splits.get(i - 1);
+                final byte[] to = i == nRanges - 1 ? null : splits.get(i);
+                final int range = i;
+                final List<String> files = new ArrayList<>();
+                listFiles.add(files);
+                listFuture.add(executor.submit(() -> writeRange(range, from, to, files)));
+            }
+            long count = 0;
+            for (Future<Long> f : listFuture) {
+                count += f.get();
+            }
+            List<String> ingest = new ArrayList<>();
+            for (List<String> files : listFiles) {
+                ingest.addAll(files);
+            }
+            if (!ingest.isEmpty()) {
+                try (IngestExternalFileOptions ifo = new IngestExternalFileOptions()
+                        .setMoveFiles(true)
+                        .setAllowGlobalSeqNo(true)
+                        .setAllowBlockingFlush(true)) {
+                    conn.getDb().ingestExternalFile(ingest, ifo);
+                }
+                HotKeyCache cache = conn.getHotKeyCache();
+                if (cache != null) {
+                    cache.invalidateAll();
+                }
+            }
+            fileCount = ingest.size();
+            return count;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("BulkLoader interrupted", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RocksDBException) {
+                throw (RocksDBException) cause;
+            }
+            throw new IOException("BulkLoader.writeRange failed", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Merge [from, to) of every run into SST files, returns the number of entries.
+     */
+    private long writeRange(int range, byte[] from, byte[] to, List<String> files) throws IOException, RocksDBException {
+        PriorityQueue<RunReader> pq = new PriorityQueue<>(Math.max(1, runs.size()), new Comparator<RunReader>() {
+            @Override
+            public int compare(RunReader a, RunReader b) {
+                int c = BytesUtil.compare(a.key, b.key);
+                // newer run first among equal keys
+                return c != 0 ? c : b.run.id - a.run.id;
+            }
+        });
+        List<RunReader> readers = new ArrayList<>();
+        long count = 0;
+        SstFileWriter writer = null;
+        long written = 0;
+        try (EnvOptions envOptions = new EnvOptions()) {
+            for (Run run : runs) {
+                RunReader r = new RunReader(run, run.seekOffset(from));
+                readers.add(r);
+                boolean hasNext = r.next();
+                while (hasNext && from != null && BytesUtil.compare(r.key, from) < 0) {
+                    hasNext = r.next();
+                }
+                if (hasNext && (to == null || BytesUtil.compare(r.key, to) < 0)) {
+                    pq.add(r);
+                }
+            }
+            while (!pq.isEmpty()) {
+                RunReader top = pq.poll();
+                byte[] key = top.key;
+                byte[] value = top.value;
+                advance(top, to, pq);
+                while (!pq.isEmpty() && BytesUtil.compare(pq.peek().key, key) == 0) {
+                    advance(pq.poll(), to, pq);
+                }
+                if (writer == null) {
+                    String path = workDir.resolve("range-" + range + "-" + files.size() + ".sst").toString();
+                    writer = new SstFileWriter(envOptions, conn.getOptions());
+                    writer.open(path);
+                    files.add(path);
+                    written = 0;
+                }
+                // same value format as the write path, e.g. ValueCompression
+                byte[] stored = conn.encodeValue(value);
+                writer.put(key, stored);
+                written += key.length + stored.length;
+                count++;
+                if (written >= targetFileSize) {
+                    writer.finish();
+                    writer.close();
+                    writer = null;
+                }
+            }
+            if (writer != null) {
+                writer.finish();
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+            for (RunReader r : readers) {
+                r.close();
+            }
+        }
+        return count;
+    }
+
+    private static void advance(RunReader r, byte[] to, PriorityQueue<RunReader> pq) throws IOException {
+        if (r.next() && (to == null || BytesUtil.compare(r.key, to) < 0)) {
+            pq.add(r);
+        }
+    }
+
+    /**
+     * Delete run files and files not moved by ingestion.
+     */
+    @Override
+    public void close() {
+        buffer.clear();
+        runs.clear();
+        if (workDir != null) {
+            try {
+                deleteDir(workDir);
+            } catch (IOException ex) {
+                logger.error("BulkLoader.close: ", ex);
+            }
+            activeWorkDirs.remove(workDir);
+            workDir = null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Byte array helpers that follow the RocksDB default bytewise ordering.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public final class BytesUtil {
+
+    /**
+     * Unsigned lexicographic order, same as RocksDB BytewiseComparator.
+     */
+    public static final Comparator<byte[]> COMPARATOR = new Comparator<byte[]>() {
+        @Override
+        public int compare(byte[] a, byte[] b) {
+            return BytesUtil.compare(a, b);
+        }
+    };
+
+    private BytesUtil() {
+    }
+
+    public static int compare(byte[] a, byte[] b) {
+        int len = Math.min(a.length, b.length);
+        for (int i = 0; i < len; i++) {
+            int c = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * Smallest key greater than every key starting with prefix,
+     * null when there is none (null or empty prefix, or all bytes 0xFF).
+     */
+    public static byte[] prefixEnd(byte[] prefix) {
+        if (prefix == null) {
+            return null;
+        }
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xFF) {
+                byte[] rs = Arrays.copyOf(prefix, i + 1);
+                rs[i]++;
+                return rs;
+            }
+        }
+        return null;
+    }
+}
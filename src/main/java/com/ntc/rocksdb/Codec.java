@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes values of type T to bytes and back.
+ * Implementations write straight into the caller's array or buffer,
+ * see Codecs for the built-in ones.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ * @param <T> value type
+ */
+public interface Codec<T> {
+
+    /**
+     * Number of bytes encode will write for value.
+     */
+    int encodedSize(T value);
+
+    /**
+     * Write value at dest[offset], returns the number of bytes written.
+     */
+    int encode(T value, byte[] dest, int offset);
+
+    /**
+     * Write value at the position of dest and advance it.
+     */
+    void encode(T value, ByteBuffer dest);
+
+    T decode(byte[] src, int offset, int length);
+
+    /**
+     * Read a value from the remaining bytes of src and advance its position.
+     */
+    T decode(ByteBuffer src);
+
+    default byte[] encode(T value) {
+        byte[] rs = new byte[encodedSize(value)];
+        encode(value, rs, 0);
+        return rs;
+    }
+
+    default T decode(byte[] src) {
+        return decode(src, 0, src.length);
+    }
+}
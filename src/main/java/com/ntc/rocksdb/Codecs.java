@@ -0,0 +1,616 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Built-in codecs and the primitive encoders behind them.
+ *
+ * Fixed-width codecs (BOOL, INT, LONG, FLOAT, DOUBLE) are big-endian and
+ * byte-compatible with DataOutputStream, which is what NRSerializer has
+ * always written. VARINT and VARLONG are zig-zag LEB128. The SORTABLE_*
+ * codecs flip the sign (and for floating point the magnitude) bits so that
+ * the unsigned bytewise order of RocksDB matches numeric order, use them
+ * for numeric keys.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public final class Codecs {
+
+    public static final Codec<Boolean> BOOL = new FixedCodec<Boolean>(1) {
+        @Override
+        public int encode(Boolean value, byte[] dest, int offset) {
+            dest[offset] = (byte) (value ? 1 : 0);
+            return 1;
+        }
+
+        @Override
+        public void encode(Boolean value, ByteBuffer dest) {
+            dest.put((byte) (value ? 1 : 0));
+        }
+
+        @Override
+        public Boolean decode(byte[] src, int offset, int length) {
+            checkLength(length);
+            return src[offset] != 0;
+        }
+
+        @Override
+        public Boolean decode(ByteBuffer src) {
+            return src.get() != 0;
+        }
+    };
+
+    public static final Codec<Integer> INT = new FixedCodec<Integer>(4) {
+        @Override
+        public int encode(Integer value, byte[] dest, int offset) {
+            return writeInt(value, dest, offset);
+        }
+
+        @Override
+        public void encode(Integer value, ByteBuffer dest) {
+            writeInt(value, dest);
+        }
+
+        @Override
+        public Integer decode(byte[] src, int offset, int length) {
+            checkLength(length);
+            return readInt(src, offset);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer src) {
+            return readInt(src);
+        }
+    };
+
+    public static final Codec<Long> LONG = new FixedCodec<Long>(8) {
+        @Override
+        public int encode(Long value, byte[] dest, int offset) {
+            return writeLong(value, dest, offset);
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer dest) {
+            writeLong(value, dest);
+        }
+
+        @Override
+        public Long decode(byte[] src, int offset, int length) {
+            checkLength(length);
+            return readLong(src, offset);
+        }
+
+        @Override
+        public Long decode(ByteBuffer src) {
+            return readLong(src);
+        }
+    };
+
+    public static final Codec<Float> FLOAT = new FixedCodec<Float>(4) {
+        @Override
+        public int encode(Float value, byte[] dest, int offset) {
+            return writeInt(Float.floatToIntBits(value), dest, offset);
+        }
+
+        @Override
+        public void encode(Float value, ByteBuffer dest) {
+            writeInt(Float.floatToIntBits(value), dest);
+        }
+
+        @Override
+        public Float decode(byte[] src, int offset, int length) {
+            checkLength(length);
+            return Float.intBitsToFloat(readInt(src, offset));
+        }
+
+        @Override
+        public Float decode(ByteBuffer src) {
+            return Float.intBitsToFloat(readInt(src));
+        }
+    };
+
+    public static final Codec<Double> DOUBLE = new FixedCodec<Double>(8) {
+        @Override
+        public int encode(Double value, byte[] dest, int offset) {
+            return writeLong(Double.doubleToLongBits(value), dest, offset);
+        }
+
+        @Override
+        public void encode(Double value, ByteBuffer dest) {
+            writeLong(Double.doubleToLongBits(value), dest);
+        }
+
+        @Override
+        public Double decode(byte[] src, int offset, int length) {
+            checkLength(length);
+            return Double.longBitsToDouble(readLong(src, offset));
+        }
+
+        @Override
+        public Double decode(ByteBuffer src) {
+            return Double.longBitsToDouble(readLong(src));
+        }
+    };
+
+    public static final Codec<Integer> SORTABLE_INT = new FixedCodec<Integer>(4) {
+        @Override
+        public int encode(Integer value, byte[] dest, int offset) {
+            return writeInt(value ^ Integer.MIN_VALUE, dest, offset);
+        }
+
+        @Override
+        public void encode(Integer value, ByteBuffer dest) {
+            writeInt(value ^ Integer.MIN_VALUE, dest);
+        }
+
+        @Override
+        public Integer decode(byte[] src, int offset, int length) {
+            checkLength(length);
+            return readInt(src, offset) ^ Integer.MIN_VALUE;
+        }
+
+        @Override
+        public Integer decode(ByteBuffer src) {
+            return readInt(src) ^ Integer.MIN_VALUE;
+        }
+    };
+
+    public static final Codec<Long> SORTABLE_LONG = new FixedCodec<Long>(8) {
+        @Override
+        public int encode(Long value, byte[] dest, int offset) {
+            return writeLong(value ^ Long.MIN_VALUE, dest, offset);
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer dest) {
+            writeLong(value ^ Long.MIN_VALUE, dest);
+        }
+
+        @Override
+        public Long decode(byte[] src, int offset, int length) {
+            checkLength(length);
+            return readLong(src, offset) ^ Long.MIN_VALUE;
+        }
+
+        @Override
+        public Long decode(ByteBuffer src) {
+            return readLong(src) ^ Long.MIN_VALUE;
+        }
+    };
+
+    public static final Codec<Double> SORTABLE_DOUBLE = new FixedCodec<Double>(8) {
+        @Override
+        public int encode(Double value, byte[] dest, int offset) {
+            return writeLong(sortableDoubleBits(value), dest, offset);
+        }
+
+        @Override
+        public void encode(Double value, ByteBuffer dest) {
+            writeLong(sortableDoubleBits(value), dest);
+        }
+
+        @Override
+        public Double decode(byte[] src, int offset, int length) {
+            checkLength(length);
+            return fromSortableDoubleBits(readLong(src, offset));
+        }
+
+        @Override
+        public Double decode(ByteBuffer src) {
+            return fromSortableDoubleBits(readLong(src));
+        }
+    };
+
+    public static final Codec<Integer> VARINT = new Codec<Integer>() {
+        @Override
+        public int encodedSize(Integer value) {
+            return varIntSize(zigZag(value));
+        }
+
+        @Override
+        public int encode(Integer value, byte[] dest, int offset) {
+            return writeVarInt(zigZag(value), dest, offset);
+        }
+
+        @Override
+        public void encode(Integer value, ByteBuffer dest) {
+            writeVarLong(zigZag(value) & 0xFFFFFFFFL, dest);
+        }
+
+        @Override
+        public Integer decode(byte[] src, int offset, int length) {
+            return unZigZag((int) readVarLong(src, offset, length));
+        }
+
+        @Override
+        public Integer decode(ByteBuffer src) {
+            return unZigZag((int) readVarLong(src));
+        }
+    };
+
+    public static final Codec<Long> VARLONG = new Codec<Long>() {
+        @Override
+        public int encodedSize(Long value) {
+            return varLongSize(zigZag(value));
+        }
+
+        @Override
+        public int encode(Long value, byte[] dest, int offset) {
+            return writeVarLong(zigZag(value), dest, offset);
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer dest) {
+            writeVarLong(zigZag(value), dest);
+        }
+
+        @Override
+        public Long decode(byte[] src, int offset, int length) {
+            return unZigZag(readVarLong(src, offset, length));
+        }
+
+        @Override
+        public Long decode(ByteBuffer src) {
+            return unZigZag(readVarLong(src));
+        }
+    };
+
+    public static final Codec<String> STRING = new Codec<String>() {
+        @Override
+        public int encodedSize(String value) {
+            return utf8Size(value);
+        }
+
+        @Override
+        public int encode(String value, byte[] dest, int offset) {
+            return writeUtf8(value, dest, offset);
+        }
+
+        @Override
+        public void encode(String value, ByteBuffer dest) {
+            if (dest.hasArray()) {
+                int n = writeUtf8(value, dest.array(), dest.arrayOffset() + dest.position());
+                dest.position(dest.position() + n);
+            } else {
+                writeUtf8(value, dest);
+            }
+        }
+
+        @Override
+        public String decode(byte[] src, int offset, int length) {
+            return new String(src, offset, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(ByteBuffer src) {
+            return StandardCharsets.UTF_8.decode(src).toString();
+        }
+    };
+
+    public static final Codec<byte[]> BYTES = new Codec<byte[]>() {
+        @Override
+        public int encodedSize(byte[] value) {
+            return value.length;
+        }
+
+        @Override
+        public int encode(byte[] value, byte[] dest, int offset) {
+            System.arraycopy(value, 0, dest, offset, value.length);
+            return value.length;
+        }
+
+        @Override
+        public void encode(byte[] value, ByteBuffer dest) {
+            dest.put(value);
+        }
+
+        @Override
+        public byte[] decode(byte[] src, int offset, int length) {
+            byte[] rs = new byte[length];
+            System.arraycopy(src, offset, rs, 0, length);
+            return rs;
+        }
+
+        @Override
+        public byte[] decode(ByteBuffer src) {
+            byte[] rs = new byte[src.remaining()];
+            src.get(rs);
+            return rs;
+        }
+
+        @Override
+        public byte[] encode(byte[] value) {
+            return value;
+        }
+
+        @Override
+        public byte[] decode(byte[] src) {
+            return src;
+        }
+    };
+
+    private Codecs() {
+    }
+
+    private abstract static class FixedCodec<T> implements Codec<T> {
+
+        private final int size;
+
+        FixedCodec(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int encodedSize(T value) {
+            return size;
+        }
+
+        void checkLength(int length) {
+            if (length < size) {
+                throw new IllegalArgumentException("Need " + size + " bytes, got " + length);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------ fixed width
+
+    public static int writeInt(int v, byte[] dest, int offset) {
+        dest[offset] = (byte) (v >>> 24);
+        dest[offset + 1] = (byte) (v >>> 16);
+        dest[offset + 2] = (byte) (v >>> 8);
+        dest[offset + 3] = (byte) v;
+        return 4;
+    }
+
+    public static int readInt(byte[] src, int offset) {
+        return (src[offset] << 24)
+                | ((src[offset + 1] & 0xFF) << 16)
+                | ((src[offset + 2] & 0xFF) << 8)
+                | (src[offset + 3] & 0xFF);
+    }
+
+    public static int writeLong(long v, byte[] dest, int offset) {
+        writeInt((int) (v >>> 32), dest, offset);
+        writeInt((int) v, dest, offset + 4);
+        return 8;
+    }
+
+    public static long readLong(byte[] src, int offset) {
+        return ((long) readInt(src, offset) << 32) | (readInt(src, offset + 4) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Little-endian fixed64, the operand format of the RocksDB uint64add merge operator.
+     */
+    public static int writeLongLE(long v, byte[] dest, int offset) {
+        for (int i = 0; i < 8; i++) {
+            dest[offset + i] = (byte) (v >>> (i << 3));
+        }
+        return 8;
+    }
+
+    public static long readLongLE(byte[] src, int offset) {
+        long rs = 0;
+        for (int i = 7; i >= 0; i--) {
+            rs = (rs << 8) | (src[offset + i] & 0xFF);
+        }
+        return rs;
+    }
+
+    public static void writeInt(int v, ByteBuffer dest) {
+        dest.putInt(dest.order() == ByteOrder.BIG_ENDIAN ? v : Integer.reverseBytes(v));
+    }
+
+    public static int readInt(ByteBuffer src) {
+        int v = src.getInt();
+        return src.order() == ByteOrder.BIG_ENDIAN ? v : Integer.reverseBytes(v);
+    }
+
+    public static void writeLong(long v, ByteBuffer dest) {
+        dest.putLong(dest.order() == ByteOrder.BIG_ENDIAN ? v : Long.reverseBytes(v));
+    }
+
+    public static long readLong(ByteBuffer src) {
+        long v = src.getLong();
+        return src.order() == ByteOrder.BIG_ENDIAN ? v : Long.reverseBytes(v);
+    }
+
+    // ------------------------------------------------------------------ order preserving
+
+    public static long sortableDoubleBits(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    public static double fromSortableDoubleBits(long bits) {
+        return Double.longBitsToDouble(bits < 0 ? bits ^ Long.MIN_VALUE : ~bits);
+    }
+
+    // ------------------------------------------------------------------ varint / zig-zag
+
+    public static int zigZag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    public static int unZigZag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    public static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Size of the unsigned LEB128 encoding of v.
+     */
+    public static int varIntSize(int v) {
+        return varLongSize(v & 0xFFFFFFFFL);
+    }
+
+    public static int varLongSize(long v) {
+        int n = 1;
+        while ((v & ~0x7FL) != 0) {
+            v >>>= 7;
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Write v as unsigned LEB128, returns the number of bytes written.
+     */
+    public static int writeVarInt(int v, byte[] dest, int offset) {
+        return writeVarLong(v & 0xFFFFFFFFL, dest, offset);
+    }
+
+    public static int writeVarLong(long v, byte[] dest, int offset) {
+        int pos = offset;
+        while ((v & ~0x7FL) != 0) {
+            dest[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        dest[pos++] = (byte) v;
+        return pos - offset;
+    }
+
+    public static void writeVarLong(long v, ByteBuffer dest) {
+        while ((v & ~0x7FL) != 0) {
+            dest.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        dest.put((byte) v);
+    }
+
+    public static long readVarLong(byte[] src, int offset, int length) {
+        long rs = 0;
+        int end = offset + Math.min(length, 10);
+        for (int pos = offset, shift = 0; pos < end; pos++, shift += 7) {
+            byte b = src[pos];
+            rs |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return rs;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public static long readVarLong(ByteBuffer src) {
+        long rs = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = src.get();
+            rs |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return rs;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    // ------------------------------------------------------------------ UTF-8
+
+    /**
+     * Encoded length of s, same as s.getBytes(UTF_8).length.
+     */
+    public static int utf8Size(String s) {
+        int n = 0;
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                n += 1;
+            } else if (c < 0x800) {
+                n += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                n += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate is replaced by '?' like String.getBytes.
+                n += 1;
+            } else {
+                n += 3;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Encode s as UTF-8 into dest, same bytes as s.getBytes(UTF_8).
+     */
+    public static int writeUtf8(String s, byte[] dest, int offset) {
+        int pos = offset;
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                dest[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                dest[pos++] = (byte) (0xC0 | (c >> 6));
+                dest[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                dest[pos++] = (byte) (0xF0 | (cp >> 18));
+                dest[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                dest[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                dest[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                dest[pos++] = (byte) '?';
+            } else {
+                dest[pos++] = (byte) (0xE0 | (c >> 12));
+                dest[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dest[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Encode s as UTF-8 at the position of dest and advance it, without an
+     * intermediate array, same bytes as s.getBytes(UTF_8).
+     */
+    public static void writeUtf8(String s, ByteBuffer dest) {
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                dest.put((byte) c);
+            } else if (c < 0x800) {
+                dest.put((byte) (0xC0 | (c >> 6)));
+                dest.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                dest.put((byte) (0xF0 | (cp >> 18)));
+                dest.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                dest.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                dest.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                dest.put((byte) '?');
+            } else {
+                dest.put((byte) (0xE0 | (c >> 12)));
+                dest.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                dest.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+}
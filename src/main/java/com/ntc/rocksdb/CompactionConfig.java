@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import org.rocksdb.Options;
+
+/**
+ * Background compaction and write stall controls, set with
+ * RDBConfig.setCompaction. Background writes go through the
+ * SharedRateLimiter, compactions are split into subcompactions, and the
+ * connection watches pending compaction bytes and L0 files so writers can
+ * back off before RocksDB slows or stops them.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class CompactionConfig {
+
+    private boolean rateLimited = true;
+    private int maxBackgroundJobs = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private int maxSubcompactions = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private long softPendingCompactionBytes = 64L << 30;
+    private long hardPendingCompactionBytes = 256L << 30;
+    private double backpressureRatio = 0.5;
+    private long backpressureWaitMillis;
+    private long checkIntervalMillis = 1000;
+    private int offPeakStartHour = -1;
+    private int offPeakEndHour = -1;
+
+    public boolean isRateLimited() {
+        return rateLimited;
+    }
+
+    /**
+     * Share the SharedRateLimiter with the other connections, default true.
+     */
+    public CompactionConfig setRateLimited(boolean rateLimited) {
+        this.rateLimited = rateLimited;
+        return this;
+    }
+
+    public int getMaxBackgroundJobs() {
+        return maxBackgroundJobs;
+    }
+
+    /**
+     * Flush and compaction threads, default one per core and at least 4.
+     */
+    public CompactionConfig setMaxBackgroundJobs(int maxBackgroundJobs) {
+        this.maxBackgroundJobs = maxBackgroundJobs;
+        return this;
+    }
+
+    public int getMaxSubcompactions() {
+        return maxSubcompactions;
+    }
+
+    /**
+     * Threads one compaction job is split into, mostly helps the large
+     * L0 to L1 compactions that block writes.
+     */
+    public CompactionConfig setMaxSubcompactions(int maxSubcompactions) {
+        this.maxSubcompactions = maxSubcompactions;
+        return this;
+    }
+
+    public long getSoftPendingCompactionBytes() {
+        return softPendingCompactionBytes;
+    }
+
+    /**
+     * RocksDB slows writes above this estimated compaction debt.
+     */
+    public CompactionConfig setSoftPendingCompactionBytes(long softPendingCompactionBytes) {
+        this.softPendingCompactionBytes = softPendingCompactionBytes;
+        return this;
+    }
+
+    public long getHardPendingCompactionBytes() {
+        return hardPendingCompactionBytes;
+    }
+
+    /**
+     * RocksDB stops writes above this estimated compaction debt.
+     */
+    public CompactionConfig setHardPendingCompactionBytes(long hardPendingCompactionBytes) {
+        this.hardPendingCompactionBytes = hardPendingCompactionBytes;
+        return this;
+    }
+
+    public double getBackpressureRatio() {
+        return backpressureRatio;
+    }
+
+    /**
+     * The connection reports backpressure once compaction debt or L0 files
+     * reach this fraction of the RocksDB slowdown limits, default 0.5.
+     */
+    public CompactionConfig setBackpressureRatio(double backpressureRatio) {
+        this.backpressureRatio = backpressureRatio;
+        return this;
+    }
+
+    public long getBackpressureWaitMillis() {
+        return backpressureWaitMillis;
+    }
+
+    /**
+     * How long putBatch and writeBatch wait for the backpressure to clear
+     * before writing anyway, 0 (default) only reports it.
+     */
+    public CompactionConfig setBackpressureWaitMillis(long backpressureWaitMillis) {
+        this.backpressureWaitMillis = backpressureWaitMillis;
+        return this;
+    }
+
+    public long getCheckIntervalMillis() {
+        return checkIntervalMillis;
+    }
+
+    /**
+     * Interval between compaction debt checks and off-peak window checks.
+     */
+    public CompactionConfig setCheckIntervalMillis(long checkIntervalMillis) {
+        this.checkIntervalMillis = checkIntervalMillis;
+        return this;
+    }
+
+    public int getOffPeakStartHour() {
+        return offPeakStartHour;
+    }
+
+    public int getOffPeakEndHour() {
+        return offPeakEndHour;
+    }
+
+    /**
+     * Daily window in local hours [startHour, endHour) where the whole
+     * database is compacted once and the SharedRateLimiter uses its
+     * off-peak rate. The window may wrap midnight, e.g. 22 to 5.
+     * -1 (default) disables it.
+     */
+    public CompactionConfig setOffPeakWindow(int startHour, int endHour) {
+        if (startHour >= 24 || endHour >= 24 || (startHour < 0) != (endHour < 0)) {
+            throw new IllegalArgumentException("Off-peak window hours must be in [0, 24) or both -1");
+        }
+        this.offPeakStartHour = startHour;
+        this.offPeakEndHour = endHour;
+        return this;
+    }
+
+    public boolean hasOffPeakWindow() {
+        return offPeakStartHour >= 0 && offPeakStartHour != offPeakEndHour;
+    }
+
+    boolean inOffPeakWindow(int hour) {
+        if (!hasOffPeakWindow()) {
+            return false;
+        }
+        return offPeakStartHour < offPeakEndHour
+                ? hour >= offPeakStartHour && hour < offPeakEndHour
+                : hour >= offPeakStartHour || hour < offPeakEndHour;
+    }
+
+    void apply(Options options) {
+        options.setMaxBackgroundJobs(maxBackgroundJobs)
+                .setMaxSubcompactions(maxSubcompactions)
+                .setSoftPendingCompactionBytesLimit(softPendingCompactionBytes)
+                .setHardPendingCompactionBytesLimit(hardPendingCompactionBytes);
+        if (rateLimited) {
+            options.setRateLimiter(SharedRateLimiter.getRateLimiter());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodic task of a connection opened with a CompactionConfig. Samples
+ * compaction debt and L0 files into the backpressure flag read by writers,
+ * and runs the off-peak window: full compaction once a day and the
+ * SharedRateLimiter off-peak rate while inside it.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+class CompactionController implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactionController.class);
+    private static final long WAIT_STEP_MILLIS = 50;
+    private static final long CLOSE_TIMEOUT_SECONDS = 60;
+
+    private final RDBSingleConnection conn;
+    private final CompactionConfig config;
+    private final long debtThreshold;
+    private final int l0Threshold;
+    private final ScheduledThreadPoolExecutor executor;
+    private volatile boolean backpressure;
+    private volatile long pendingCompactionBytes;
+    private volatile boolean closed;
+    private boolean offPeak;
+    private LocalDate lastOffPeakCompaction;
+
+    CompactionController(RDBSingleConnection conn, CompactionConfig config, int l0SlowdownTrigger) {
+        this.conn = conn;
+        this.config = config;
+        this.debtThreshold = (long) (config.getSoftPendingCompactionBytes() * config.getBackpressureRatio());
+        this.l0Threshold = Math.max(1, (int) (l0SlowdownTrigger * config.getBackpressureRatio()));
+        final String name = "rdb-compaction-" + conn.getDbDirectory();
+        executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        executor.scheduleWithFixedDelay(this, config.getCheckIntervalMillis(), config.getCheckIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void run() {
+        try {
+            sample();
+            if (config.hasOffPeakWindow()) {
+                LocalDateTime now = LocalDateTime.now();
+                boolean inside = config.inOffPeakWindow(now.getHour());
+                if (inside != offPeak) {
+                    offPeak = inside;
+                    SharedRateLimiter.setOffPeak(inside);
+                }
+                // a window wrapping midnight counts as the day it started
+                LocalDate day = now.getHour() < config.getOffPeakEndHour() && config.getOffPeakStartHour() > config.getOffPeakEndHour()
+                        ? now.toLocalDate().minusDays(1) : now.toLocalDate();
+                if (inside && !day.equals(lastOffPeakCompaction)) {
+                    lastOffPeakCompaction = day;
+                    long start = System.currentTimeMillis();
+                    conn.compactAll(() -> closed);
+                    logger.info("Off-peak compaction of " + conn.getDbDirectory() + " done in " + (System.currentTimeMillis() - start) + " ms");
+                }
+            }
+        } catch (Exception ex) {
+            logger.error("CompactionController: ", ex);
+        }
+    }
+
+    /**
+     * Refresh the backpressure flag from the largest debt and L0 file
+     * count over all column families.
+     */
+    void sample() {
+        long debt = conn.maxLongProperty("rocksdb.estimate-pending-compaction-bytes");
+        long l0 = conn.maxLongProperty("rocksdb.num-files-at-level0");
+        pendingCompactionBytes = debt;
+        // a soft limit of 0 disables the debt based slowdown in RocksDB too
+        boolean pressed = (debtThreshold > 0 && debt >= debtThreshold) || l0 >= l0Threshold;
+        if (pressed != backpressure) {
+            backpressure = pressed;
+            logger.warn("Write backpressure " + (pressed ? "on" : "off") + " for " + conn.getDbDirectory()
+                    + ", pending compaction bytes " + debt + ", L0 files " + l0);
+        }
+    }
+
+    boolean isBackpressure() {
+        return backpressure;
+    }
+
+    long getPendingCompactionBytes() {
+        return pendingCompactionBytes;
+    }
+
+    /**
+     * Block while backpressure is on, at most timeoutMillis.
+     * Returns false when it was still on at the deadline.
+     */
+    boolean await(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (backpressure) {
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0) {
+                return false;
+            }
+            Thread.sleep(Math.min(left, WAIT_STEP_MILLIS));
+        }
+        return true;
+    }
+
+    /**
+     * Stop sampling and the off-peak compaction, compactAll stops after its
+     * current chunk. Returns false when that chunk was still running after
+     * CLOSE_TIMEOUT_SECONDS or the wait was interrupted, the caller must then
+     * not close the db under it.
+     */
+    boolean close() {
+        closed = true;
+        executor.shutdown();
+        boolean terminated = false;
+        try {
+            terminated = executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (!terminated) {
+            logger.warn("Off-peak compaction of " + conn.getDbDirectory() + " still running after close");
+        }
+        if (offPeak) {
+            offPeak = false;
+            SharedRateLimiter.setOffPeak(false);
+        }
+        return terminated;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Per-thread direct buffers for the ByteBuffer get/put path.
+ * Each thread owns one key buffer and one value buffer which are reused
+ * across calls and only reallocated when a larger capacity is requested.
+ * Buffers are cleared on acquire and must not be shared across threads.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class DirectBufferPool {
+
+    public static final int DEFAULT_KEY_CAPACITY = 256;
+    public static final int DEFAULT_VALUE_CAPACITY = 4096;
+
+    private final int keyCapacity;
+    private final int valueCapacity;
+    private final int maxRetainedCapacity;
+    private final ThreadLocal<ByteBuffer[]> local = new ThreadLocal<ByteBuffer[]>() {
+        @Override
+        protected ByteBuffer[] initialValue() {
+            return new ByteBuffer[2];
+        }
+    };
+
+    public DirectBufferPool() {
+        this(DEFAULT_KEY_CAPACITY, DEFAULT_VALUE_CAPACITY, 1 << 20);
+    }
+
+    /**
+     * @param keyCapacity initial capacity of the key buffer
+     * @param valueCapacity initial capacity of the value buffer
+     * @param maxRetainedCapacity larger buffers are handed out once and not kept
+     */
+    public DirectBufferPool(int keyCapacity, int valueCapacity, int maxRetainedCapacity) {
+        this.keyCapacity = keyCapacity;
+        this.valueCapacity = valueCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    public ByteBuffer keyBuffer(int minCapacity) {
+        return acquire(0, Math.max(minCapacity, keyCapacity));
+    }
+
+    public ByteBuffer valueBuffer(int minCapacity) {
+        return acquire(1, Math.max(minCapacity, valueCapacity));
+    }
+
+    private ByteBuffer acquire(int slot, int minCapacity) {
+        ByteBuffer[] buffers = local.get();
+        ByteBuffer bb = buffers[slot];
+        if (bb == null || bb.capacity() < minCapacity) {
+            bb = ByteBuffer.allocateDirect(roundUp(minCapacity));
+            if (bb.capacity() <= maxRetainedCapacity) {
+                buffers[slot] = bb;
+            }
+        }
+        bb.clear();
+        return bb;
+    }
+
+    private static int roundUp(int n) {
+        int c = Integer.highestOneBit(n);
+        return c == n || c >= (1 << 30) ? n : c << 1;
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * On-heap read cache for hot keys, bounded by bytes (key + value + a fixed
+ * per-entry overhead).
+ * Lookups are lock-free. Inserts and invalidations lock one segment, each
+ * segment evicts with CLOCK and a TinyLFU count-min sketch decides whether a
+ * new key is worth more than the victim, so one-off reads do not flush the
+ * hot set.
+ * A miss takes a stamp before reading the database and put is ignored when a
+ * write invalidated the segment in between, so a slow reader never caches a
+ * value older than the last write.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class HotKeyCache {
+
+    public static final int ENTRY_OVERHEAD = 64;
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private static final class Key {
+
+        final byte[] data;
+        final int hash;
+
+        Key(byte[] data) {
+            this.data = data;
+            this.hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(data, ((Key) o).data);
+        }
+    }
+
+    private static final class Entry {
+
+        final Key key;
+        final byte[] value;
+        final int weight;
+        volatile boolean referenced;
+        volatile String text;
+        // position in the segment ring, guarded by the segment lock
+        int index;
+
+        Entry(Key key, byte[] value) {
+            this.key = key;
+            this.value = value;
+            this.weight = key.data.length + value.length + ENTRY_OVERHEAD;
+        }
+    }
+
+    private static final class Segment extends ReentrantLock {
+
+        final ArrayList<Entry> ring = new ArrayList<>();
+        int hand;
+        long weight;
+        volatile long generation;
+    }
+
+    private final ConcurrentHashMap<Key, Entry> map = new ConcurrentHashMap<>();
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long maxSegmentWeight;
+    private final FrequencySketch sketch;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public HotKeyCache(long maxBytes) {
+        this(maxBytes, DEFAULT_SEGMENTS);
+    }
+
+    public HotKeyCache(long maxBytes, int nSegments) {
+        if (maxBytes <= 0 || nSegments <= 0) {
+            throw new IllegalArgumentException("maxBytes and nSegments must be > 0");
+        }
+        int n = Integer.highestOneBit(nSegments);
+        n = n == nSegments ? n : n << 1;
+        this.segments = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            segments[i] = new Segment();
+        }
+        this.segmentMask = n - 1;
+        this.maxSegmentWeight = Math.max(1, maxBytes / n);
+        this.sketch = new FrequencySketch((int) Math.min(1 << 22, Math.max(256, maxBytes / 128)));
+    }
+
+    private Segment segment(int hash) {
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    private Entry lookup(byte[] key) {
+        Key k = new Key(key);
+        sketch.increment(k.hash);
+        Entry e = map.get(k);
+        if (e == null) {
+            misses.increment();
+            return null;
+        }
+        e.referenced = true;
+        hits.increment();
+        return e;
+    }
+
+    /**
+     * Cached value or null. The array is shared with the cache, do not modify it.
+     */
+    public byte[] get(byte[] key) {
+        Entry e = lookup(key);
+        return e != null ? e.value : null;
+    }
+
+    /**
+     * Cached value decoded as UTF-8, the String is kept with the entry.
+     */
+    String getString(byte[] key) {
+        Entry e = lookup(key);
+        if (e == null) {
+            return null;
+        }
+        String s = e.text;
+        if (s == null) {
+            s = new String(e.value, StandardCharsets.UTF_8);
+            e.text = s;
+        }
+        return s;
+    }
+
+    /**
+     * Take before reading key from the database, pass it to put.
+     */
+    public long stamp(byte[] key) {
+        return segment(Arrays.hashCode(key)).generation;
+    }
+
+    /**
+     * Cache value read from the database, dropped when key was written after
+     * stamp was taken or when the sketch ranks it below the eviction victim.
+     */
+    public void put(byte[] key, byte[] value, long stamp) {
+        if (key == null || value == null) {
+            return;
+        }
+        Key k = new Key(key);
+        Entry entry = new Entry(k, value);
+        if (entry.weight > maxSegmentWeight) {
+            return;
+        }
+        Segment seg = segment(k.hash);
+        seg.lock();
+        try {
+            if (seg.generation != stamp) {
+                return;
+            }
+            Entry old = map.get(k);
+            if (old != null) {
+                remove(seg, old);
+            }
+            while (seg.weight + entry.weight > maxSegmentWeight && !seg.ring.isEmpty()) {
+                Entry victim = nextVictim(seg);
+                if (old == null && sketch.frequency(k.hash) <= sketch.frequency(victim.key.hash)) {
+                    rejections.increment();
+                    return;
+                }
+                remove(seg, victim);
+                evictions.increment();
+            }
+            entry.index = seg.ring.size();
+            seg.ring.add(entry);
+            seg.weight += entry.weight;
+            map.put(k, entry);
+        } finally {
+            seg.unlock();
+        }
+    }
+
+    private static Entry nextVictim(Segment seg) {
+        ArrayList<Entry> ring = seg.ring;
+        for (int i = 0, n = ring.size() * 2; i < n; i++) {
+            if (seg.hand >= ring.size()) {
+                seg.hand = 0;
+            }
+            Entry e = ring.get(seg.hand);
+            if (!e.referenced) {
+                return e;
+            }
+            e.referenced = false;
+            seg.hand++;
+        }
+        return ring.get(seg.hand % ring.size());
+    }
+
+    private void remove(Segment seg, Entry e) {
+        ArrayList<Entry> ring = seg.ring;
+        Entry last = ring.remove(ring.size() - 1);
+        if (last != e) {
+            ring.set(e.index, last);
+            last.index = e.index;
+        }
+        seg.weight -= e.weight;
+        map.remove(e.key, e);
+    }
+
+    /**
+     * Drop key, must be called after every write of key to the database.
+     */
+    public void invalidate(byte[] key) {
+        Key k = new Key(key);
+        Segment seg = segment(k.hash);
+        seg.lock();
+        try {
+            seg.generation++;
+            Entry e = map.get(k);
+            if (e != null) {
+                remove(seg, e);
+            }
+        } finally {
+            seg.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment seg : segments) {
+            seg.lock();
+            try {
+                seg.generation++;
+                for (Entry e : seg.ring) {
+                    map.remove(e.key, e);
+                }
+                seg.ring.clear();
+                seg.hand = 0;
+                seg.weight = 0;
+            } finally {
+                seg.unlock();
+            }
+        }
+    }
+
+    public long size() {
+        return map.size();
+    }
+
+    public long weightedSize() {
+        long rs = 0;
+        for (Segment seg : segments) {
+            seg.lock();
+            try {
+                rs += seg.weight;
+            } finally {
+                seg.unlock();
+            }
+        }
+        return rs;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Loads not cached because the admission sketch preferred the victim.
+     */
+    public long rejectionCount() {
+        return rejections.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Count-min sketch of 4-bit saturating counters, halved every
+     * 10 * width increments so old popularity fades out. Updates are not
+     * atomic, a lost increment only makes the estimate a bit lower.
+     */
+    private static final class FrequencySketch {
+
+        private static final int[] SEEDS = {0x97cb3127, 0xc2b2ae35, 0x85ebca6b, 0x27d4eb2f};
+        private static final int MAX_COUNT = 15;
+
+        private final int[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int width) {
+            int n = Integer.highestOneBit(width);
+            n = n == width ? n : n << 1;
+            this.table = new int[n];
+            this.mask = n - 1;
+            this.sampleSize = 10 * n;
+        }
+
+        private int indexOf(int hash, int i) {
+            int h = hash * SEEDS[i];
+            h ^= h >>> 17;
+            return h & mask;
+        }
+
+        void increment(int hash) {
+            for (int i = 0; i < SEEDS.length; i++) {
+                int idx = indexOf(hash, i);
+                if (table[idx] < MAX_COUNT) {
+                    table[idx]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(int hash) {
+            int rs = MAX_COUNT;
+            for (int i = 0; i < SEEDS.length; i++) {
+                rs = Math.min(rs, table[indexOf(hash, i)]);
+            }
+            return rs;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] >>>= 1;
+            }
+            additions = sampleSize / 2;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * A secondary index over the default keyspace of RDBSingleConnection.
+ * The extractor maps a stored entry to its index key, entries with a null
+ * index key are not indexed. Several entries may share an index key.
+ * Register it with RDBSingleConnection.registerIndex on every open, the
+ * extractor is code and is not persisted, the index entries are.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public final class IndexDefinition {
+
+    @FunctionalInterface
+    public interface Extractor {
+
+        /**
+         * Index key of the entry, null when it is not indexed.
+         * Must be deterministic, the same entry always gives the same index key.
+         */
+        byte[] extract(byte[] key, byte[] value);
+    }
+
+    private final String name;
+    private final byte[] prefix;
+    private final Extractor extractor;
+
+    public IndexDefinition(String name, Extractor extractor) {
+        if (name == null || name.isEmpty() || extractor == null) {
+            throw new IllegalArgumentException("IndexDefinition needs a name and an extractor");
+        }
+        byte[] bn = name.getBytes(StandardCharsets.UTF_8);
+        if (bn.length > 255) {
+            throw new IllegalArgumentException("Index name longer than 255 bytes: " + name);
+        }
+        this.name = name;
+        this.extractor = extractor;
+        prefix = new byte[bn.length + 1];
+        prefix[0] = (byte) bn.length;
+        System.arraycopy(bn, 0, prefix, 1, bn.length);
+    }
+
+    /**
+     * Index on a String attribute of String values, e.g. a field of a JSON document.
+     */
+    public static IndexDefinition ofString(String name, final Function<String, String> extractor) {
+        return new IndexDefinition(name, (key, value) -> {
+            String ik = extractor.apply(new String(value, StandardCharsets.UTF_8));
+            return ik != null ? ik.getBytes(StandardCharsets.UTF_8) : null;
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Extractor getExtractor() {
+        return extractor;
+    }
+
+    byte[] extract(byte[] key, byte[] value) {
+        return value != null ? extractor.extract(key, value) : null;
+    }
+
+    /**
+     * Prefix of every entry of this index: name length, name.
+     */
+    byte[] prefix() {
+        return prefix;
+    }
+
+    /**
+     * Prefix of the entries of one index key: prefix, BE uint32 length, index key.
+     * The length keeps "ab" from matching the entries of "abc".
+     */
+    byte[] entryPrefix(byte[] indexKey) {
+        return entryKey(indexKey, null);
+    }
+
+    /**
+     * Index entry: entryPrefix(indexKey) followed by the primary key, with an empty value.
+     */
+    byte[] entryKey(byte[] indexKey, byte[] primaryKey) {
+        int pkLen = primaryKey != null ? primaryKey.length : 0;
+        byte[] rs = new byte[prefix.length + 4 + indexKey.length + pkLen];
+        System.arraycopy(prefix, 0, rs, 0, prefix.length);
+        int off = prefix.length;
+        rs[off] = (byte) (indexKey.length >>> 24);
+        rs[off + 1] = (byte) (indexKey.length >>> 16);
+        rs[off + 2] = (byte) (indexKey.length >>> 8);
+        rs[off + 3] = (byte) indexKey.length;
+        System.arraycopy(indexKey, 0, rs, off + 4, indexKey.length);
+        if (pkLen > 0) {
+            System.arraycopy(primaryKey, 0, rs, off + 4 + indexKey.length, pkLen);
+        }
+        return rs;
+    }
+
+    /**
+     * Marker stored once the index has been built, 0x00 never starts an entry.
+     */
+    byte[] builtMarkerKey() {
+        byte[] rs = new byte[prefix.length];
+        System.arraycopy(prefix, 1, rs, 1, prefix.length - 1);
+        return rs;
+    }
+}
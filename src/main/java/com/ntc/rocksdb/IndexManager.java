@@ -0,0 +1,238 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+
+/**
+ * Maintains the registered IndexDefinitions of a RDBSingleConnection in the
+ * index column family. While an index is registered, writes lock the striped
+ * locks of their keys, read the old values and write data and index changes
+ * in one WriteBatch, so a crash never leaves them apart.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+final class IndexManager {
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final int REBUILD_BATCH = 1024;
+
+    private final RDBSingleConnection conn;
+    private final Map<String, IndexDefinition> mapIndex = new ConcurrentHashMap<>();
+    private volatile IndexDefinition[] active = new IndexDefinition[0];
+    private volatile ColumnFamilyHandle handle;
+
+    IndexManager(RDBSingleConnection conn) {
+        this.conn = conn;
+    }
+
+    ColumnFamilyHandle getHandle() {
+        return handle;
+    }
+
+    void setHandle(ColumnFamilyHandle handle) {
+        this.handle = handle;
+    }
+
+    boolean isActive() {
+        return active.length > 0;
+    }
+
+    IndexDefinition get(String name) {
+        return mapIndex.get(name);
+    }
+
+    Collection<IndexDefinition> list() {
+        return mapIndex.values();
+    }
+
+    /**
+     * Start maintaining def and build it if it was never built.
+     * Writes keep going during the build, which takes the same key locks.
+     */
+    void register(IndexDefinition def, int parallelism) throws RocksDBException {
+        mapIndex.put(def.getName(), def);
+        active = mapIndex.values().toArray(new IndexDefinition[0]);
+        RocksDB db = conn.getDb();
+        if (db.get(handle, def.builtMarkerKey()) == null) {
+            rebuild(def, parallelism);
+        }
+    }
+
+    void drop(String name) throws RocksDBException {
+        IndexDefinition def = mapIndex.remove(name);
+        if (def != null) {
+            active = mapIndex.values().toArray(new IndexDefinition[0]);
+            RocksDB db = conn.getDb();
+            db.delete(handle, conn.writeOptions(), def.builtMarkerKey());
+            db.deleteRange(handle, conn.writeOptions(), def.prefix(), BytesUtil.prefixEnd(def.prefix()));
+        }
+    }
+
+    /**
+     * Drop the entries of def and index every entry again on parallelism threads.
+     * Returns the number of index entries written.
+     */
+    long rebuild(final IndexDefinition def, int parallelism) throws RocksDBException {
+        final RocksDB db = conn.getDb();
+        db.delete(handle, conn.writeOptions(), def.builtMarkerKey());
+        // Entries written by concurrent writers after this point are kept,
+        // older ones are rewritten from the current values below.
+        db.deleteRange(handle, conn.writeOptions(), def.prefix(), BytesUtil.prefixEnd(def.prefix()));
+        long count = conn.parallelForEachRange(parallelism, (it) -> {
+            long n = 0;
+            List<byte[]> keys = new ArrayList<>(REBUILD_BATCH);
+            while (it.hasNext()) {
+                keys.add(it.next().getKey());
+                if (keys.size() == REBUILD_BATCH) {
+                    n += indexCurrent(def, keys);
+                    keys.clear();
+                }
+            }
+            if (!keys.isEmpty()) {
+                n += indexCurrent(def, keys);
+            }
+            return n;
+        });
+        db.put(handle, conn.writeOptions(), def.builtMarkerKey(), EMPTY);
+        return count;
+    }
+
+    /**
+     * Index the current values of keys under their locks, the scanned
+     * values may already be stale.
+     */
+    private long indexCurrent(IndexDefinition def, List<byte[]> keys) throws RocksDBException {
+        StripedLock locks = conn.locks();
+        int[] stripes = locks.lockAll(keys);
+        try (WriteBatch batch = new WriteBatch()) {
+            byte[][] arrKey = keys.toArray(new byte[keys.size()][]);
+            byte[][] values = conn.getListByte(arrKey);
+            long n = 0;
+            for (int i = 0; i < arrKey.length; i++) {
+                byte[] ik = def.extract(arrKey[i], values[i]);
+                if (ik != null) {
+                    batch.put(handle, def.entryKey(ik, arrKey[i]), EMPTY);
+                    n++;
+                }
+            }
+            if (n > 0) {
+                conn.getDb().write(conn.writeOptions(), batch);
+            }
+            return n;
+        } finally {
+            locks.unlockAll(stripes);
+        }
+    }
+
+    /**
+     * Apply puts then deletes atomically together with their index changes.
+     */
+    void write(WriteOptions wo, Map<byte[], byte[]> puts, Collection<byte[]> deletes) throws RocksDBException {
+        // Final state per key, a null value is a delete.
+        TreeMap<byte[], byte[]> mapFinal = new TreeMap<>(BytesUtil.COMPARATOR);
+        if (puts != null) {
+            for (Map.Entry<byte[], byte[]> e : puts.entrySet()) {
+                byte[] key = e.getKey();
+                byte[] value = e.getValue();
+                if (key != null && key.length > 0 && value != null && value.length > 0) {
+                    mapFinal.put(key, value);
+                }
+            }
+        }
+        if (deletes != null) {
+            for (byte[] key : deletes) {
+                if (key != null && key.length > 0) {
+                    mapFinal.put(key, null);
+                }
+            }
+        }
+        if (mapFinal.isEmpty()) {
+            return;
+        }
+        IndexDefinition[] defs = active;
+        StripedLock locks = conn.locks();
+        int[] stripes = locks.lockAll(mapFinal.keySet());
+        try (WriteBatch batch = new WriteBatch()) {
+            byte[][] arrKey = mapFinal.keySet().toArray(new byte[mapFinal.size()][]);
+            byte[][] oldValues = conn.getListByte(arrKey);
+            for (int i = 0; i < arrKey.length; i++) {
+                byte[] key = arrKey[i];
+                byte[] value = mapFinal.get(key);
+                if (value != null) {
+                    batch.put(key, conn.encodeValue(value));
+                } else {
+                    batch.delete(key);
+                }
+                for (IndexDefinition def : defs) {
+                    byte[] oldIk = def.extract(key, oldValues[i]);
+                    byte[] newIk = def.extract(key, value);
+                    if (!Arrays.equals(oldIk, newIk)) {
+                        if (oldIk != null) {
+                            batch.delete(handle, def.entryKey(oldIk, key));
+                        }
+                        if (newIk != null) {
+                            batch.put(handle, def.entryKey(newIk, key), EMPTY);
+                        }
+                    }
+                }
+            }
+            conn.getDb().write(wo, batch);
+        } finally {
+            locks.unlockAll(stripes);
+        }
+    }
+
+    /**
+     * Entries whose current value maps to indexKey, in primary key order, at most limit.
+     * Each hit is checked against the current value, so entries left behind by
+     * writes that bypass the index are skipped.
+     */
+    List<KV> lookup(IndexDefinition def, byte[] indexKey, int limit) throws RocksDBException {
+        List<KV> rs = new ArrayList<>();
+        byte[] prefix = def.entryPrefix(indexKey);
+        try (RDBIterator it = conn.newIterator(handle, prefix, BytesUtil.prefixEnd(prefix), false, null, ReadProfile.DEFAULT)) {
+            List<byte[]> keys = new ArrayList<>();
+            while (rs.size() < limit && it.hasNext()) {
+                byte[] entry = it.next().getKey();
+                keys.add(Arrays.copyOfRange(entry, prefix.length, entry.length));
+                if (keys.size() >= Math.min(limit - rs.size(), REBUILD_BATCH) || !it.hasNext()) {
+                    byte[][] arrKey = keys.toArray(new byte[keys.size()][]);
+                    byte[][] values = conn.getListByte(arrKey);
+                    for (int i = 0; i < arrKey.length && rs.size() < limit; i++) {
+                        if (Arrays.equals(def.extract(arrKey[i], values[i]), indexKey)) {
+                            rs.add(new KV(arrKey[i], values[i]));
+                        }
+                    }
+                    keys.clear();
+                }
+            }
+        }
+        return rs;
+    }
+}
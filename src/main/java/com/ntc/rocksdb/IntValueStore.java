@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.nio.ByteBuffer;
+import org.rocksdb.RocksDBException;
+
+/**
+ * TypedStore specialized for int values, without boxing. Values are 4 bytes
+ * big-endian like NRSerializer.serializeInt, so with Codecs.STRING keys they
+ * are shared with RDBSingleConnection.incInt.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ * @param <K> key type
+ */
+public class IntValueStore<K> {
+
+    private final RDBSingleConnection conn;
+    private final Codec<K> keyCodec;
+
+    public IntValueStore(RDBSingleConnection conn, Codec<K> keyCodec) {
+        this.conn = conn;
+        this.keyCodec = keyCodec;
+    }
+
+    private ByteBuffer keyBuffer(K key) {
+        ByteBuffer bk = RDBSingleConnection.getBufferPool().keyBuffer(keyCodec.encodedSize(key));
+        keyCodec.encode(key, bk);
+        bk.flip();
+        return bk;
+    }
+
+    public void put(K key, int value) throws RocksDBException {
+        ByteBuffer bv = RDBSingleConnection.getBufferPool().valueBuffer(4);
+        Codecs.writeInt(value, bv);
+        bv.flip();
+        conn.put(keyBuffer(key), bv);
+    }
+
+    /**
+     * Value of key, defaultValue when absent or shorter than 4 bytes.
+     */
+    public int get(K key, int defaultValue) throws RocksDBException {
+        ByteBuffer bv = TypedStore.getDirect(conn, keyBuffer(key));
+        return bv != null && bv.remaining() >= 4 ? Codecs.readInt(bv) : defaultValue;
+    }
+
+    public void delete(K key) {
+        conn.deleteByte(keyCodec.encode(key));
+    }
+
+    /**
+     * Atomically add delta, an absent key counts as 0. Returns the new value.
+     */
+    public int addAndGet(K key, int delta) throws RocksDBException {
+        byte[] rs = conn.update(keyCodec.encode(key), (current) -> {
+            int v = current != null && current.length >= 4 ? Codecs.readInt(current, 0) : 0;
+            byte[] bv = new byte[4];
+            Codecs.writeInt(v + delta, bv, 0);
+            return bv;
+        });
+        return Codecs.readInt(rs, 0);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.nio.ByteBuffer;
+import org.rocksdb.RocksDBException;
+
+/**
+ * TypedStore specialized for long keys, without boxing. Keys are stored
+ * like Codecs.SORTABLE_LONG so scans return them in numeric order.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ * @param <V> value type
+ */
+public class LongKeyStore<V> {
+
+    /**
+     * Receives scanned entries.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+
+        void accept(long key, V value);
+    }
+
+    private final RDBSingleConnection conn;
+    private final Codec<V> valueCodec;
+
+    public LongKeyStore(RDBSingleConnection conn, Codec<V> valueCodec) {
+        this.conn = conn;
+        this.valueCodec = valueCodec;
+    }
+
+    private static ByteBuffer keyBuffer(long key) {
+        ByteBuffer bk = RDBSingleConnection.getBufferPool().keyBuffer(8);
+        Codecs.writeLong(key ^ Long.MIN_VALUE, bk);
+        bk.flip();
+        return bk;
+    }
+
+    public static byte[] encodeKey(long key) {
+        byte[] rs = new byte[8];
+        Codecs.writeLong(key ^ Long.MIN_VALUE, rs, 0);
+        return rs;
+    }
+
+    public static long decodeKey(byte[] key) {
+        return Codecs.readLong(key, 0) ^ Long.MIN_VALUE;
+    }
+
+    public void put(long key, V value) throws RocksDBException {
+        ByteBuffer bk = keyBuffer(key);
+        ByteBuffer bv = RDBSingleConnection.getBufferPool().valueBuffer(valueCodec.encodedSize(value));
+        valueCodec.encode(value, bv);
+        bv.flip();
+        conn.put(bk, bv);
+    }
+
+    public V get(long key) throws RocksDBException {
+        ByteBuffer bv = TypedStore.getDirect(conn, keyBuffer(key));
+        return bv != null ? valueCodec.decode(bv) : null;
+    }
+
+    public void delete(long key) {
+        conn.deleteByte(encodeKey(key));
+    }
+
+    /**
+     * Visit entries with from &lt;= key &lt; to in numeric order.
+     */
+    public long forEach(long from, long to, EntryConsumer<V> consumer) {
+        long count = 0;
+        try (RDBIterator it = conn.scan(encodeKey(from), encodeKey(to))) {
+            while (it.hasNext()) {
+                KV kv = it.next();
+                consumer.accept(decodeKey(kv.getKey()), valueCodec.decode(kv.getValue()));
+                count++;
+            }
+        }
+        return count;
+    }
+}
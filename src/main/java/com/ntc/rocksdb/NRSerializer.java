@@ -15,14 +15,14 @@
  */
 package com.ntc.rocksdb;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Big-endian serializer, byte-compatible with DataOutputStream.
+ * Values are written straight into byte[] through Codecs, the offset
+ * variants write into a caller-owned array without allocating.
  *
  * @author nghiatc
  * @since Aug 20, 2015
@@ -32,165 +32,106 @@ public class NRSerializer {
     private static final Logger logger = LoggerFactory.getLogger(NRSerializer.class);
 
     public byte[] serializeBool(boolean b) {
-        try {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            DataOutputStream dos = new DataOutputStream(bos);
-            dos.writeBoolean(b);
-            byte[] bb = bos.toByteArray();
-            dos.close();
-            bos.close();
-            return bb;
-        } catch (Exception ex) {
-            logger.error("NRSerializer.serializeBool " + ex.toString(), ex);
-        }
-        return null;
+        return new byte[]{(byte) (b ? 1 : 0)};
+    }
+
+    public int serializeBool(boolean b, byte[] dest, int offset) {
+        dest[offset] = (byte) (b ? 1 : 0);
+        return 1;
     }
 
     public boolean deserializeBool(byte[] b) {
-        try {
-            ByteArrayInputStream bis = new ByteArrayInputStream(b, 0, b.length);
-            DataInputStream dis = new DataInputStream(bis);
-            boolean rs = dis.readBoolean();
-            dis.close();
-            bis.close();
-            return rs;
-        } catch (Exception ex) {
-            logger.error("NRSerializer.deserializeBool " + ex.toString(), ex);
+        if (!checkLength(b, 1, "deserializeBool")) {
+            return false;
         }
-        return false;
+        return b[0] != 0;
     }
 
     public byte[] serializeInt(int i) {
-        try {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            DataOutputStream dos = new DataOutputStream(bos);
-            dos.writeInt(i);
-            byte[] bb = bos.toByteArray();
-            dos.close();
-            bos.close();
-            return bb;
-        } catch (Exception ex) {
-            logger.error("NRSerializer.serializeInt " + ex.toString(), ex);
-        }
-        return null;
+        byte[] bb = new byte[4];
+        Codecs.writeInt(i, bb, 0);
+        return bb;
+    }
+
+    public int serializeInt(int i, byte[] dest, int offset) {
+        return Codecs.writeInt(i, dest, offset);
     }
 
     public int deserializeInt(byte[] b) {
-        try {
-            ByteArrayInputStream bis = new ByteArrayInputStream(b, 0, b.length);
-            DataInputStream dis = new DataInputStream(bis);
-            int rs = dis.readInt();
-            dis.close();
-            bis.close();
-            return rs;
-        } catch (Exception ex) {
-            logger.error("NRSerializer.deserializeInt " + ex.toString(), ex);
+        if (!checkLength(b, 4, "deserializeInt")) {
+            return 0;
         }
-        return 0;
+        return Codecs.readInt(b, 0);
     }
 
     public byte[] serializeLong(long l) {
-        try {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            DataOutputStream dos = new DataOutputStream(bos);
-            dos.writeLong(l);
-            byte[] bb = bos.toByteArray();
-            dos.close();
-            bos.close();
-            return bb;
-        } catch (Exception ex) {
-            logger.error("NRSerializer.serializeLong " + ex.toString(), ex);
-        }
-        return null;
+        byte[] bb = new byte[8];
+        Codecs.writeLong(l, bb, 0);
+        return bb;
+    }
+
+    public int serializeLong(long l, byte[] dest, int offset) {
+        return Codecs.writeLong(l, dest, offset);
     }
 
     public long deserializeLong(byte[] b) {
-        try {
-            ByteArrayInputStream bis = new ByteArrayInputStream(b, 0, b.length);
-            DataInputStream dis = new DataInputStream(bis);
-            long rs = dis.readLong();
-            dis.close();
-            bis.close();
-            return rs;
-        } catch (Exception ex) {
-            logger.error("NRSerializer.deserializeLong " + ex.toString(), ex);
+        if (!checkLength(b, 8, "deserializeLong")) {
+            return 0;
         }
-        return 0;
+        return Codecs.readLong(b, 0);
     }
 
     public byte[] serializeFloat(float f) {
-        try {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            DataOutputStream dos = new DataOutputStream(bos);
-            dos.writeFloat(f);
-            byte[] bb = bos.toByteArray();
-            dos.close();
-            bos.close();
-            return bb;
-        } catch (Exception ex) {
-            logger.error("NRSerializer.serializeFloat " + ex.toString(), ex);
-        }
-        return null;
+        return serializeInt(Float.floatToIntBits(f));
+    }
+
+    public int serializeFloat(float f, byte[] dest, int offset) {
+        return Codecs.writeInt(Float.floatToIntBits(f), dest, offset);
     }
 
     public float deserializeFloat(byte[] b) {
-        try {
-            ByteArrayInputStream bis = new ByteArrayInputStream(b, 0, b.length);
-            DataInputStream dis = new DataInputStream(bis);
-            float rs = dis.readFloat();
-            dis.close();
-            bis.close();
-            return rs;
-        } catch (Exception ex) {
-            logger.error("NRSerializer.deserializeFloat " + ex.toString(), ex);
+        if (!checkLength(b, 4, "deserializeFloat")) {
+            return 0;
         }
-        return 0;
+        return Float.intBitsToFloat(Codecs.readInt(b, 0));
     }
 
     public byte[] serializeDouble(double d) {
-        try {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            DataOutputStream dos = new DataOutputStream(bos);
-            dos.writeDouble(d);
-            byte[] bb = bos.toByteArray();
-            dos.close();
-            bos.close();
-            return bb;
-        } catch (Exception ex) {
-            logger.error("NRSerializer.serializeDouble " + ex.toString(), ex);
-        }
-        return null;
+        return serializeLong(Double.doubleToLongBits(d));
+    }
+
+    public int serializeDouble(double d, byte[] dest, int offset) {
+        return Codecs.writeLong(Double.doubleToLongBits(d), dest, offset);
     }
 
     public double deserializeDouble(byte[] b) {
-        try {
-            ByteArrayInputStream bis = new ByteArrayInputStream(b, 0, b.length);
-            DataInputStream dis = new DataInputStream(bis);
-            double rs = dis.readDouble();
-            dis.close();
-            bis.close();
-            return rs;
-        } catch (Exception ex) {
-            logger.error("NRSerializer.deserializeDouble " + ex.toString(), ex);
+        if (!checkLength(b, 8, "deserializeDouble")) {
+            return 0;
         }
-        return 0;
+        return Double.longBitsToDouble(Codecs.readLong(b, 0));
     }
 
     public byte[] serializeString(String s) {
-        try {
-            return s.getBytes("UTF-8");
-        } catch (Exception ex) {
-            logger.error("NRSerializer.serializeString " + ex.toString(), ex);
+        if (s == null) {
+            logger.error("NRSerializer.serializeString input is null");
+            return null;
         }
-        return null;
+        return s.getBytes(StandardCharsets.UTF_8);
     }
 
     public String deserializeString(byte[] s) {
-        try {
-            return new String(s, "UTF-8");
-        } catch (Exception ex) {
-            logger.error("NRSerializer.deserializeString " + ex.toString(), ex);
+        if (s == null) {
+            logger.error("NRSerializer.deserializeString input is null");
+            return null;
+        }
+        return new String(s, StandardCharsets.UTF_8);
+    }
+
+    private static boolean checkLength(byte[] b, int size, String method) {
+        if (b == null || b.length < size) {
+            logger.error("NRSerializer." + method + " need " + size + " bytes, got " + (b == null ? "null" : b.length));
+            return false;
         }
-        return null;
+        return true;
     }
 }
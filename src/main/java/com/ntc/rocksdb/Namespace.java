@@ -0,0 +1,308 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatch;
+import static org.rocksdb.util.ByteUtil.bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A column family of a RDBSingleConnection with the same put/get/delete/batch
+ * API as the connection. Get it with RDBSingleConnection.createNamespace or
+ * getNamespace, it is closed with the connection. After dropNamespace every
+ * call fails with IllegalStateException (logged by the methods that log errors).
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class Namespace {
+
+    private final Logger logger = LoggerFactory.getLogger(Namespace.class);
+
+    private final RDBSingleConnection conn;
+    private final String name;
+    private final ColumnFamilyHandle handle;
+    private volatile boolean dropped;
+
+    Namespace(RDBSingleConnection conn, String name, ColumnFamilyHandle handle) {
+        this.conn = conn;
+        this.name = name;
+        this.handle = handle;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Throws IllegalStateException once the namespace was dropped.
+     */
+    public ColumnFamilyHandle getHandle() {
+        if (dropped) {
+            throw new IllegalStateException("Namespace " + name + " was dropped");
+        }
+        return handle;
+    }
+
+    public boolean isDropped() {
+        return dropped;
+    }
+
+    void markDropped() {
+        dropped = true;
+    }
+
+    /**
+     * Handle without the dropped check, for closing it.
+     */
+    ColumnFamilyHandle handle() {
+        return handle;
+    }
+
+    private RocksDB db() {
+        return conn.getDb();
+    }
+
+    public void put(String key, String value) {
+        try {
+            if (key != null && !key.isEmpty() && value != null && !value.isEmpty()) {
+                db().put(getHandle(), conn.writeOptions(), bytes(key), bytes(value));
+            }
+        } catch (Exception ex) {
+            logger.error("put: ", ex);
+        }
+    }
+
+    public void putByte(byte[] key, byte[] value) {
+        try {
+            if (key != null && key.length > 0 && value != null && value.length > 0) {
+                db().put(getHandle(), conn.writeOptions(), key, value);
+            }
+        } catch (Exception ex) {
+            logger.error("putByte: ", ex);
+        }
+    }
+
+    public void putBatch(Map<String, String> mapData) throws IOException {
+        if (mapData != null && !mapData.isEmpty()) {
+            try (WriteBatch batch = new WriteBatch()) {
+                for (Map.Entry<String, String> e : mapData.entrySet()) {
+                    String key = e.getKey();
+                    String value = e.getValue();
+                    if (key != null && !key.isEmpty() && value != null && !value.isEmpty()) {
+                        batch.put(getHandle(), bytes(key), bytes(value));
+                    }
+                }
+                db().write(conn.writeOptions(), batch);
+            } catch (Exception ex) {
+                logger.error("putBatch: ", ex);
+            }
+        }
+    }
+
+    public void putBatchByte(Map<byte[], byte[]> mapData) throws IOException {
+        if (mapData != null && !mapData.isEmpty()) {
+            try (WriteBatch batch = new WriteBatch()) {
+                for (Map.Entry<byte[], byte[]> e : mapData.entrySet()) {
+                    byte[] key = e.getKey();
+                    byte[] value = e.getValue();
+                    if (key != null && key.length > 0 && value != null && value.length > 0) {
+                        batch.put(getHandle(), key, value);
+                    }
+                }
+                db().write(conn.writeOptions(), batch);
+            } catch (Exception ex) {
+                logger.error("putBatchByte: ", ex);
+            }
+        }
+    }
+
+    public String get(String key) {
+        try {
+            if (key != null && !key.isEmpty()) {
+                byte[] bv = db().get(getHandle(), conn.readOptions(), bytes(key));
+                return bv != null ? conn.getNRSerializer().deserializeString(bv) : null;
+            }
+        } catch (Exception ex) {
+            logger.error("get: ", ex);
+        }
+        return null;
+    }
+
+    public byte[] getByte(byte[] key) {
+        try {
+            if (key != null && key.length > 0) {
+                return db().get(getHandle(), conn.readOptions(), key);
+            }
+        } catch (Exception ex) {
+            logger.error("getByte: ", ex);
+        }
+        return null;
+    }
+
+    public Map<String, String> getList(List<String> listKey) throws RocksDBException {
+        Map<String, String> rs = new LinkedHashMap<>();
+        if (listKey != null && !listKey.isEmpty()) {
+            byte[][] arrKey = new byte[listKey.size()][];
+            for (int i = 0; i < arrKey.length; i++) {
+                String key = listKey.get(i);
+                arrKey[i] = key != null && !key.isEmpty() ? bytes(key) : null;
+            }
+            byte[][] arrValue = conn.multiGet(getHandle(), arrKey);
+            for (int i = 0; i < arrKey.length; i++) {
+                if (arrKey[i] != null) {
+                    byte[] bv = arrValue[i];
+                    rs.put(listKey.get(i), bv != null ? conn.getNRSerializer().deserializeString(bv) : null);
+                }
+            }
+        }
+        return rs;
+    }
+
+    public Map<byte[], byte[]> getListByte(List<byte[]> listKey) throws RocksDBException {
+        Map<byte[], byte[]> rs = new LinkedHashMap<>();
+        if (listKey != null && !listKey.isEmpty()) {
+            byte[][] arrKey = listKey.toArray(new byte[listKey.size()][]);
+            byte[][] arrValue = conn.multiGet(getHandle(), arrKey);
+            for (int i = 0; i < arrKey.length; i++) {
+                byte[] key = arrKey[i];
+                if (key != null && key.length > 0) {
+                    rs.put(key, arrValue[i]);
+                }
+            }
+        }
+        return rs;
+    }
+
+    public byte[][] getListByte(byte[][] arrKey) throws RocksDBException {
+        return conn.multiGet(getHandle(), arrKey);
+    }
+
+    public void delete(String key) {
+        try {
+            if (key != null && !key.isEmpty()) {
+                db().delete(getHandle(), conn.writeOptions(), bytes(key));
+            }
+        } catch (Exception ex) {
+            logger.error("delete: ", ex);
+        }
+    }
+
+    public void deleteByte(byte[] key) {
+        try {
+            if (key != null && key.length > 0) {
+                db().delete(getHandle(), conn.writeOptions(), key);
+            }
+        } catch (Exception ex) {
+            logger.error("deleteByte: ", ex);
+        }
+    }
+
+    public void deleteBatch(List<String> listKey) throws IOException {
+        if (listKey != null && !listKey.isEmpty()) {
+            try (WriteBatch batch = new WriteBatch()) {
+                for (String key : listKey) {
+                    if (key != null && !key.isEmpty()) {
+                        batch.delete(getHandle(), bytes(key));
+                    }
+                }
+                db().write(conn.writeOptions(), batch);
+            } catch (Exception ex) {
+                logger.error("deleteBatch: ", ex);
+            }
+        }
+    }
+
+    public void deleteBatchByte(List<byte[]> listKey) throws IOException {
+        if (listKey != null && !listKey.isEmpty()) {
+            try (WriteBatch batch = new WriteBatch()) {
+                for (byte[] key : listKey) {
+                    if (key != null && key.length > 0) {
+                        batch.delete(getHandle(), key);
+                    }
+                }
+                db().write(conn.writeOptions(), batch);
+            } catch (Exception ex) {
+                logger.error("deleteBatchByte: ", ex);
+            }
+        }
+    }
+
+    /**
+     * Delete every key in [from, to) with one range tombstone, null from or
+     * to means unbounded, up to the last key when the call starts.
+     * See RDBSingleConnection.deleteRange(from, to, reclaim).
+     */
+    public void deleteRange(byte[] from, byte[] to, boolean reclaim) throws RocksDBException {
+        conn.deleteRange(getHandle(), from, to, reclaim);
+    }
+
+    public void deletePrefix(byte[] prefix, boolean reclaim) throws RocksDBException {
+        if (prefix != null && prefix.length > 0) {
+            conn.deleteRange(getHandle(), prefix, BytesUtil.prefixEnd(prefix), reclaim);
+        }
+    }
+
+    /**
+     * Remove all data of this namespace and reclaim its disk space, the
+     * namespace itself stays. Keys written while it runs may survive, use
+     * RDBSingleConnection.dropNamespace to discard everything atomically.
+     */
+    public void truncate() throws RocksDBException {
+        conn.deleteRange(getHandle(), null, null, true);
+    }
+
+    /**
+     * Same as RDBSingleConnection.addCounterByte, in this namespace.
+     */
+    public void addCounterByte(byte[] key, long delta) throws RocksDBException {
+        if (key != null && key.length > 0) {
+            byte[] bv = new byte[8];
+            Codecs.writeLongLE(delta, bv, 0);
+            db().merge(getHandle(), conn.writeOptions(), key, bv);
+        }
+    }
+
+    public long getCounterByte(byte[] key) throws RocksDBException {
+        if (key != null && key.length > 0) {
+            byte[] bv = db().get(getHandle(), conn.readOptions(), key);
+            if (bv != null && bv.length >= 8) {
+                return Codecs.readLongLE(bv, 0);
+            }
+        }
+        return 0L;
+    }
+
+    public RDBIterator scan(byte[] from, byte[] to) {
+        return conn.newIterator(getHandle(), from, to, false, null, ReadProfile.SCAN);
+    }
+
+    public RDBIterator scanReverse(byte[] from, byte[] to) {
+        return conn.newIterator(getHandle(), from, to, true, null, ReadProfile.SCAN);
+    }
+
+    public RDBIterator scanPrefix(byte[] prefix) {
+        return conn.newIterator(getHandle(), prefix, BytesUtil.prefixEnd(prefix), false, null, ReadProfile.SCAN);
+    }
+}
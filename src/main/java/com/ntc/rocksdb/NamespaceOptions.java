@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.List;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompactionStyle;
+import org.rocksdb.CompressionType;
+import org.rocksdb.Options;
+
+/**
+ * Per column family tuning of a Namespace.
+ * Unset fields keep the value of the database Options.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class NamespaceOptions {
+
+    private CompressionType compression;
+    private CompactionStyle compactionStyle;
+    private int bloomBitsPerKey;
+    private Cache blockCache;
+    private long blockSize;
+    private long writeBufferSize;
+
+    public CompressionType getCompression() {
+        return compression;
+    }
+
+    public NamespaceOptions setCompression(CompressionType compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    public CompactionStyle getCompactionStyle() {
+        return compactionStyle;
+    }
+
+    public NamespaceOptions setCompactionStyle(CompactionStyle compactionStyle) {
+        this.compactionStyle = compactionStyle;
+        return this;
+    }
+
+    public int getBloomBitsPerKey() {
+        return bloomBitsPerKey;
+    }
+
+    /**
+     * Bloom filter bits per key, 0 for no filter.
+     */
+    public NamespaceOptions setBloomBitsPerKey(int bloomBitsPerKey) {
+        this.bloomBitsPerKey = bloomBitsPerKey;
+        return this;
+    }
+
+    public Cache getBlockCache() {
+        return blockCache;
+    }
+
+    /**
+     * Block cache of this family, can be shared with other families. Owned by the caller.
+     * Defaults to SharedCache.getBlockCache() when a preset is in use.
+     */
+    public NamespaceOptions setBlockCache(Cache blockCache) {
+        this.blockCache = blockCache;
+        return this;
+    }
+
+    public long getBlockSize() {
+        return blockSize;
+    }
+
+    public NamespaceOptions setBlockSize(long blockSize) {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    public long getWriteBufferSize() {
+        return writeBufferSize;
+    }
+
+    public NamespaceOptions setWriteBufferSize(long writeBufferSize) {
+        this.writeBufferSize = writeBufferSize;
+        return this;
+    }
+
+    /**
+     * New ColumnFamilyOptions copied from the database options (merge operator
+     * included) with these overrides applied. Native objects the options
+     * refer to (bloom filter, SharedCache reference) are added to resources,
+     * close them once the column family and the options are closed.
+     */
+    public ColumnFamilyOptions toColumnFamilyOptions(Options base, List<AutoCloseable> resources) {
+        ColumnFamilyOptions cfo = new ColumnFamilyOptions(base);
+        if (compression != null) {
+            cfo.setCompressionType(compression);
+        }
+        if (compactionStyle != null) {
+            cfo.setCompactionStyle(compactionStyle);
+        }
+        if (writeBufferSize > 0) {
+            cfo.setWriteBufferSize(writeBufferSize);
+        }
+        if (bloomBitsPerKey > 0 || blockCache != null || blockSize > 0) {
+            BlockBasedTableConfig table = new BlockBasedTableConfig();
+            if (bloomBitsPerKey > 0) {
+                BloomFilter filter = new BloomFilter(bloomBitsPerKey, false);
+                resources.add(filter);
+                table.setFilterPolicy(filter);
+            }
+            // stay within the shared budget when a WorkloadPreset is in use,
+            // the reference keeps the cache alive as long as this family
+            Cache cache = blockCache;
+            if (cache == null) {
+                cache = SharedCache.acquireExisting();
+                if (cache != null) {
+                    resources.add(SharedCache::release);
+                }
+            }
+            if (cache != null) {
+                table.setBlockCache(cache);
+            }
+            if (blockSize > 0) {
+                table.setBlockSize(blockSize);
+            }
+            cfo.setTableFormatConfig(table);
+        }
+        return cfo;
+    }
+}
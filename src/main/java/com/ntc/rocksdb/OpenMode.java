@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+/**
+ * How RDBSingleConnection opens a database directory.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public enum OpenMode {
+    /**
+     * Owns the directory, one per directory across processes.
+     */
+    READ_WRITE,
+    /**
+     * Static view of the files as of open time, any number of processes may
+     * open the same directory next to the primary. Writes fail.
+     */
+    READ_ONLY
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+/**
+ * Pool sizes of RDBAsyncConnection. Each operation kind has its own
+ * platform-thread pool and bounded queue, so a flood of large multiGets
+ * or writes does not delay point reads.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class RDBAsyncConfig {
+
+    private int readThreads = Runtime.getRuntime().availableProcessors();
+    private int multiGetThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    private int writeThreads = 2;
+    private int queueCapacity = 4096;
+
+    public int getReadThreads() {
+        return readThreads;
+    }
+
+    /**
+     * Threads serving getAsync, default one per core.
+     */
+    public RDBAsyncConfig setReadThreads(int readThreads) {
+        this.readThreads = readThreads;
+        return this;
+    }
+
+    public int getMultiGetThreads() {
+        return multiGetThreads;
+    }
+
+    public RDBAsyncConfig setMultiGetThreads(int multiGetThreads) {
+        this.multiGetThreads = multiGetThreads;
+        return this;
+    }
+
+    public int getWriteThreads() {
+        return writeThreads;
+    }
+
+    /**
+     * Threads serving puts, deletes and batches. RocksDB merges concurrent
+     * writers into one write group, more than a few threads rarely helps.
+     */
+    public RDBAsyncConfig setWriteThreads(int writeThreads) {
+        this.writeThreads = writeThreads;
+        return this;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Pending operations allowed per pool, beyond that futures fail
+     * with RejectedExecutionException instead of blocking the caller.
+     */
+    public RDBAsyncConfig setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+}
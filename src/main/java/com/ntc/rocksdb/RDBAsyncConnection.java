@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.rocksdb.util.ByteUtil.bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CompletableFuture facade over RDBSingleConnection for virtual-thread and
+ * reactive callers. Every blocking JNI call runs on a dedicated platform
+ * thread of the pool for its operation kind (read, multiGet, write), so
+ * callers never block or pin their own carrier thread.
+ * Errors complete the future exceptionally, a full queue fails it with
+ * RejectedExecutionException. Futures complete on the pool threads, move
+ * heavy continuations elsewhere with the *Async stage methods.
+ * Closing it does not close the connection.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class RDBAsyncConnection {
+    private final Logger logger = LoggerFactory.getLogger(RDBAsyncConnection.class);
+
+    private final RDBSingleConnection conn;
+    private final NRSerializer nrs;
+    private final ExecutorService readExecutor;
+    private final ExecutorService multiGetExecutor;
+    private final ExecutorService writeExecutor;
+
+    public RDBAsyncConnection(RDBSingleConnection conn) {
+        this(conn, new RDBAsyncConfig());
+    }
+
+    public RDBAsyncConnection(RDBSingleConnection conn, RDBAsyncConfig config) {
+        this.conn = conn;
+        this.nrs = conn.getNRSerializer();
+        config = config != null ? config : new RDBAsyncConfig();
+        readExecutor = newExecutor("rdb-async-read-", config.getReadThreads(), config.getQueueCapacity());
+        multiGetExecutor = newExecutor("rdb-async-multiget-", config.getMultiGetThreads(), config.getQueueCapacity());
+        writeExecutor = newExecutor("rdb-async-write-", config.getWriteThreads(), config.getQueueCapacity());
+    }
+
+    private static ExecutorService newExecutor(final String prefix, int nThreads, int queueCapacity) {
+        final AtomicInteger counter = new AtomicInteger();
+        ThreadFactory tf = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, prefix + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+        // Abort rather than CallerRuns: the caller may be a virtual thread,
+        // running JNI on it would pin its carrier.
+        return new ThreadPoolExecutor(nThreads, nThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), tf, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public RDBSingleConnection getConnection() {
+        return conn;
+    }
+
+    public CompletableFuture<String> getAsync(String key) {
+        if (key == null || key.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(readExecutor, () -> {
+            byte[] bv = conn.getByteChecked(bytes(key));
+            return bv != null ? nrs.deserializeString(bv) : null;
+        });
+    }
+
+    public CompletableFuture<byte[]> getByteAsync(byte[] key) {
+        if (key == null || key.length == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(readExecutor, () -> conn.getByteChecked(key));
+    }
+
+    public CompletableFuture<Map<String, String>> multiGetAsync(List<String> listKey) {
+        if (listKey == null || listKey.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.<String, String>emptyMap());
+        }
+        return submit(multiGetExecutor, () -> conn.getList(listKey));
+    }
+
+    /**
+     * Result is aligned with arrKey, see RDBSingleConnection.getListByte(byte[][]).
+     */
+    public CompletableFuture<byte[][]> multiGetByteAsync(byte[][] arrKey) {
+        if (arrKey == null || arrKey.length == 0) {
+            return CompletableFuture.completedFuture(new byte[0][]);
+        }
+        return submit(multiGetExecutor, () -> conn.getListByte(arrKey));
+    }
+
+    public CompletableFuture<Void> putAsync(String key, String value) {
+        if (key == null || key.isEmpty() || value == null || value.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(writeExecutor, () -> {
+            conn.putByteChecked(bytes(key), bytes(value), null);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> putByteAsync(byte[] key, byte[] value) {
+        if (key == null || key.length == 0 || value == null || value.length == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(writeExecutor, () -> {
+            conn.putByteChecked(key, value, null);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteAsync(String key) {
+        if (key == null || key.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(writeExecutor, () -> {
+            conn.deleteByteChecked(bytes(key), null);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteByteAsync(byte[] key) {
+        if (key == null || key.length == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(writeExecutor, () -> {
+            conn.deleteByteChecked(key, null);
+            return null;
+        });
+    }
+
+    /**
+     * Atomic puts and deletes, see RDBSingleConnection.writeBatch.
+     */
+    public CompletableFuture<Void> writeBatchAsync(Map<byte[], byte[]> puts, Collection<byte[]> deletes) {
+        return submit(writeExecutor, () -> {
+            conn.writeBatch(puts, deletes);
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(ExecutorService executor, final Callable<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * Stop accepting work and wait for queued operations to finish.
+     */
+    public void close() {
+        for (ExecutorService executor : new ExecutorService[]{readExecutor, multiGetExecutor, writeExecutor}) {
+            executor.shutdown();
+        }
+        try {
+            for (ExecutorService executor : new ExecutorService[]{readExecutor, multiGetExecutor, writeExecutor}) {
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    logger.error("close: pending operations still running");
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.rocksdb.Options;
+
+/**
+ * Settings used by RDBSingleConnection.getInstance when opening a database.
+ * Setters return this so calls can be chained like RocksDB Options.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class RDBConfig {
+
+    private Options options;
+    private boolean optimisticTransaction;
+    private int lockStripes = 256;
+    private int maxConflictRetries = 16;
+    private WriteProfile writeProfile = WriteProfile.DEFAULT;
+    private ReadProfile readProfile = ReadProfile.DEFAULT;
+    private long hotKeyCacheBytes;
+    private WorkloadPreset preset;
+    private boolean metrics;
+    private int ttlSeconds;
+    private OpenMode openMode = OpenMode.READ_WRITE;
+    private ValueCompression valueCompression;
+    private CompactionConfig compaction;
+    private final Map<String, NamespaceOptions> mapNamespaceOptions = new HashMap<>();
+
+    public Options getOptions() {
+        return options;
+    }
+
+    /**
+     * RocksDB Options, RDBSingleConnection.newDefaultOptions() when null.
+     */
+    public RDBConfig setOptions(Options options) {
+        this.options = options;
+        return this;
+    }
+
+    public boolean isOptimisticTransaction() {
+        return optimisticTransaction;
+    }
+
+    /**
+     * Open as OptimisticTransactionDB, update and compareAndSet then retry on
+     * write conflict instead of taking a striped lock.
+     */
+    public RDBConfig setOptimisticTransaction(boolean optimisticTransaction) {
+        this.optimisticTransaction = optimisticTransaction;
+        return this;
+    }
+
+    public int getLockStripes() {
+        return lockStripes;
+    }
+
+    /**
+     * Number of locks guarding read-modify-write calls, rounded up to a power of two.
+     */
+    public RDBConfig setLockStripes(int lockStripes) {
+        this.lockStripes = lockStripes;
+        return this;
+    }
+
+    public int getMaxConflictRetries() {
+        return maxConflictRetries;
+    }
+
+    public RDBConfig setMaxConflictRetries(int maxConflictRetries) {
+        this.maxConflictRetries = maxConflictRetries;
+        return this;
+    }
+
+    public WriteProfile getWriteProfile() {
+        return writeProfile;
+    }
+
+    /**
+     * Default durability of the connection, see setDefaultWriteProfile.
+     */
+    public RDBConfig setWriteProfile(WriteProfile writeProfile) {
+        if (writeProfile == null) {
+            throw new IllegalArgumentException("WriteProfile must not be null");
+        }
+        this.writeProfile = writeProfile;
+        return this;
+    }
+
+    public ReadProfile getReadProfile() {
+        return readProfile;
+    }
+
+    public RDBConfig setReadProfile(ReadProfile readProfile) {
+        if (readProfile == null) {
+            throw new IllegalArgumentException("ReadProfile must not be null");
+        }
+        this.readProfile = readProfile;
+        return this;
+    }
+
+    public long getHotKeyCacheBytes() {
+        return hotKeyCacheBytes;
+    }
+
+    /**
+     * Size of the on-heap HotKeyCache in front of get/getByte, 0 (default) disables it.
+     * Not compatible with setTtlSeconds.
+     */
+    public RDBConfig setHotKeyCacheBytes(long hotKeyCacheBytes) {
+        this.hotKeyCacheBytes = hotKeyCacheBytes;
+        return this;
+    }
+
+    public WorkloadPreset getPreset() {
+        return preset;
+    }
+
+    /**
+     * Tune the Options for a workload and use the SharedCache block cache and
+     * WriteBufferManager. Applied on top of setOptions when both are set.
+     */
+    public RDBConfig setPreset(WorkloadPreset preset) {
+        this.preset = preset;
+        return this;
+    }
+
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Record per-operation latencies, enable RocksDB Statistics and register
+     * the RDBMetrics MBean, see RDBSingleConnection.getMetrics().
+     */
+    public RDBConfig setMetrics(boolean metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public int getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Open as TtlDB: entries older than ttlSeconds are removed by compaction,
+     * for every namespace. Reads may still see them until then, use putTtl
+     * for exact expiry, honored by every read of the default namespace;
+     * per-write TTLs are capped at ttlSeconds.
+     * 0 (default) disables TTL mode.
+     * Not compatible with setOptimisticTransaction or setHotKeyCacheBytes.
+     */
+    public RDBConfig setTtlSeconds(int ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+        return this;
+    }
+
+    public OpenMode getOpenMode() {
+        return openMode;
+    }
+
+    /**
+     * READ_WRITE (default) or READ_ONLY. READ_ONLY requires an existing
+     * database and can not be combined with setOptimisticTransaction.
+     */
+    public RDBConfig setOpenMode(OpenMode openMode) {
+        this.openMode = openMode;
+        return this;
+    }
+
+    public ValueCompression getValueCompression() {
+        return valueCompression;
+    }
+
+    /**
+     * Compress large values of the default keyspace in the connection before
+     * they are written, null (default) disables it. Keep it set for a database
+     * that holds compressed values, use level 0 to stop compressing new ones.
+     */
+    public RDBConfig setValueCompression(ValueCompression valueCompression) {
+        this.valueCompression = valueCompression;
+        return this;
+    }
+
+    public CompactionConfig getCompaction() {
+        return compaction;
+    }
+
+    /**
+     * Rate-limited background compaction, subcompactions, off-peak window and
+     * write backpressure, null (default) keeps the Options as given.
+     * Applied after the preset, so it overrides its background job count.
+     */
+    public RDBConfig setCompaction(CompactionConfig compaction) {
+        this.compaction = compaction;
+        return this;
+    }
+
+    public NamespaceOptions getNamespaceOptions(String name) {
+        return mapNamespaceOptions.get(name);
+    }
+
+    /**
+     * Options of a namespace, used when its column family is opened or created.
+     */
+    public RDBConfig setNamespaceOptions(String name, NamespaceOptions nsOpts) {
+        mapNamespaceOptions.put(name, nsOpts);
+        return this;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.Slice;
+
+/**
+ * Bounded iterator over [from, to), forward or reverse.
+ * Bounds are pushed into ReadOptions as iterate_lower_bound and
+ * iterate_upper_bound so RocksDB skips SST blocks outside the range.
+ * Owns the native iterator, ReadOptions and bound slices, which are
+ * released by close() or as soon as the iterator is exhausted.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class RDBIterator implements Iterator<KV>, AutoCloseable {
+
+    private final RocksIterator it;
+    private final ReadOptions readOptions;
+    private final Slice lower;
+    private final Slice upper;
+    private final boolean reverse;
+    private UnaryOperator<byte[]> decoder;
+    private byte[] nextValue;
+    private boolean closed;
+
+    /**
+     * @param readOptions owned by the iterator from now on
+     */
+    RDBIterator(RocksDB db, ColumnFamilyHandle cf, ReadOptions readOptions, byte[] from, byte[] to, boolean reverse) {
+        this.readOptions = readOptions;
+        this.reverse = reverse;
+        lower = from != null ? new Slice(from) : null;
+        upper = to != null ? new Slice(to) : null;
+        if (lower != null) {
+            readOptions.setIterateLowerBound(lower);
+        }
+        if (upper != null) {
+            readOptions.setIterateUpperBound(upper);
+        }
+        it = db.newIterator(cf, readOptions);
+        if (reverse) {
+            it.seekToLast();
+        } else if (from != null) {
+            it.seek(from);
+        } else {
+            it.seekToFirst();
+        }
+    }
+
+    /**
+     * Decode values written through ValueCompression or putTtl, entries
+     * decoded to null (expired) are skipped.
+     */
+    RDBIterator decodeWith(UnaryOperator<byte[]> decoder) {
+        this.decoder = decoder;
+        return this;
+    }
+
+    /**
+     * Move to the first key greater than key (less than key when reverse).
+     */
+    void skipPast(byte[] key) {
+        nextValue = null;
+        if (reverse) {
+            it.seekForPrev(key);
+            if (it.isValid() && BytesUtil.compare(it.key(), key) == 0) {
+                it.prev();
+            }
+        } else {
+            it.seek(key);
+            if (it.isValid() && BytesUtil.compare(it.key(), key) == 0) {
+                it.next();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        while (it.isValid()) {
+            if (decoder == null) {
+                return true;
+            }
+            if (nextValue == null) {
+                nextValue = decoder.apply(it.value());
+            }
+            if (nextValue != null) {
+                return true;
+            }
+            advance();
+        }
+        try {
+            it.status();
+        } catch (RocksDBException ex) {
+            close();
+            throw new IllegalStateException("RDBIterator: " + ex.getMessage(), ex);
+        }
+        close();
+        return false;
+    }
+
+    @Override
+    public KV next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        KV kv = new KV(it.key(), decoder != null ? nextValue : it.value());
+        nextValue = null;
+        advance();
+        return kv;
+    }
+
+    private void advance() {
+        if (reverse) {
+            it.prev();
+        } else {
+            it.next();
+        }
+    }
+
+    /**
+     * Sequential ordered stream, close it (try-with-resources) when not consumed to the end.
+     */
+    public Stream<KV> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        it.close();
+        readOptions.close();
+        if (lower != null) {
+            lower.close();
+        }
+        if (upper != null) {
+            upper.close();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.rocksdb.RocksDB;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Metrics of one RDBSingleConnection, enabled with RDBConfig.setMetrics(true):
+ * a LatencyHistogram per operation, RocksDB Statistics tickers and DB
+ * properties read on demand. Also exported over JMX, see RDBMetricsMXBean.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class RDBMetrics implements RDBMetricsMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RDBMetrics.class);
+
+    public enum Op {
+        GET,
+        GET_LIST,
+        PUT,
+        PUT_BATCH,
+        DELETE,
+        DELETE_BATCH,
+        DELETE_RANGE,
+        MERGE,
+        INCREMENT,
+        UPDATE
+    }
+
+    /**
+     * Properties returned by getProperties, compaction debt, memory and stalls.
+     */
+    public static final String[] PROPERTIES = {
+        "rocksdb.estimate-pending-compaction-bytes",
+        "rocksdb.block-cache-usage",
+        "rocksdb.block-cache-pinned-usage",
+        "rocksdb.cur-size-all-mem-tables",
+        "rocksdb.estimate-table-readers-mem",
+        "rocksdb.estimate-num-keys",
+        "rocksdb.num-running-compactions",
+        "rocksdb.num-running-flushes",
+        "rocksdb.actual-delayed-write-rate",
+        "rocksdb.is-write-stopped"
+    };
+
+    public static final TickerType[] TICKERS = {
+        TickerType.BLOCK_CACHE_HIT,
+        TickerType.BLOCK_CACHE_MISS,
+        TickerType.BLOOM_FILTER_USEFUL,
+        TickerType.MEMTABLE_HIT,
+        TickerType.MEMTABLE_MISS,
+        TickerType.STALL_MICROS,
+        TickerType.BYTES_WRITTEN,
+        TickerType.BYTES_READ,
+        TickerType.COMPACT_READ_BYTES,
+        TickerType.COMPACT_WRITE_BYTES,
+        TickerType.FLUSH_WRITE_BYTES
+    };
+
+    private final RDBSingleConnection conn;
+    private final Statistics statistics;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Op.values().length];
+    private final LatencyHistogram batchSizes = new LatencyHistogram();
+    private ObjectName objectName;
+
+    RDBMetrics(RDBSingleConnection conn, Statistics statistics) {
+        this.conn = conn;
+        this.statistics = statistics;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Record the latency of op started at startNanos (System.nanoTime()).
+     */
+    public void record(Op op, long startNanos) {
+        latencies[op.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public void recordBatchSize(int size) {
+        batchSizes.record(size);
+    }
+
+    public LatencyHistogram getLatency(Op op) {
+        return latencies[op.ordinal()];
+    }
+
+    public LatencyHistogram getBatchSizes() {
+        return batchSizes;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Integer DB property of the default column family, -1 when unavailable.
+     */
+    public long getProperty(String name) {
+        RocksDB db = conn.getDb();
+        try {
+            return db != null ? db.getLongProperty(name) : -1L;
+        } catch (Exception ex) {
+            logger.debug("getProperty " + name + ": ", ex);
+            return -1L;
+        }
+    }
+
+    @Override
+    public Map<String, Long> getProperties() {
+        Map<String, Long> rs = new LinkedHashMap<>();
+        for (String name : PROPERTIES) {
+            rs.put(name, getProperty(name));
+        }
+        return rs;
+    }
+
+    @Override
+    public Map<String, Long> getTickers() {
+        Map<String, Long> rs = new LinkedHashMap<>();
+        if (statistics != null) {
+            for (TickerType t : TICKERS) {
+                rs.put(t.name(), statistics.getTickerCount(t));
+            }
+        }
+        return rs;
+    }
+
+    private Map<Op, LatencyHistogram.Snapshot> snapshots() {
+        Map<Op, LatencyHistogram.Snapshot> rs = new EnumMap<>(Op.class);
+        for (Op op : Op.values()) {
+            rs.put(op, latencies[op.ordinal()].snapshot());
+        }
+        return rs;
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        Map<String, Long> rs = new LinkedHashMap<>();
+        for (Map.Entry<Op, LatencyHistogram.Snapshot> e : snapshots().entrySet()) {
+            rs.put(e.getKey().name(), e.getValue().getCount());
+        }
+        return rs;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMeanMicros() {
+        Map<String, Double> rs = new LinkedHashMap<>();
+        for (Map.Entry<Op, LatencyHistogram.Snapshot> e : snapshots().entrySet()) {
+            rs.put(e.getKey().name(), e.getValue().getMean() / 1000.0);
+        }
+        return rs;
+    }
+
+    private Map<String, Long> percentileMicros(double q) {
+        Map<String, Long> rs = new LinkedHashMap<>();
+        for (Map.Entry<Op, LatencyHistogram.Snapshot> e : snapshots().entrySet()) {
+            long v = q >= 1.0 ? e.getValue().getMax() : e.getValue().getPercentile(q);
+            rs.put(e.getKey().name(), TimeUnit.NANOSECONDS.toMicros(v));
+        }
+        return rs;
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP50Micros() {
+        return percentileMicros(0.5);
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP99Micros() {
+        return percentileMicros(0.99);
+    }
+
+    @Override
+    public Map<String, Long> getLatencyMaxMicros() {
+        return percentileMicros(1.0);
+    }
+
+    @Override
+    public double getBatchSizeMean() {
+        return batchSizes.snapshot().getMean();
+    }
+
+    @Override
+    public double getHotKeyCacheHitRate() {
+        HotKeyCache cache = conn.getHotKeyCache();
+        return cache != null ? cache.hitRate() : 0;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram h : latencies) {
+            h.reset();
+        }
+        batchSizes.reset();
+    }
+
+    void registerMBean(String dbDirectory) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.ntc.rocksdb:type=RDBMetrics,path=" + ObjectName.quote(dbDirectory));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                objectName = name;
+            }
+        } catch (Exception ex) {
+            logger.error("registerMBean: ", ex);
+        }
+    }
+
+    void unregisterMBean() {
+        try {
+            if (objectName != null) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+                objectName = null;
+            }
+        } catch (Exception ex) {
+            logger.error("unregisterMBean: ", ex);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.Map;
+
+/**
+ * JMX view of RDBMetrics, registered as com.ntc.rocksdb:type=RDBMetrics,path=&lt;db directory&gt;.
+ * Latency maps are keyed by operation name, values in microseconds.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public interface RDBMetricsMXBean {
+
+    Map<String, Long> getOperationCounts();
+
+    Map<String, Double> getLatencyMeanMicros();
+
+    Map<String, Long> getLatencyP50Micros();
+
+    Map<String, Long> getLatencyP99Micros();
+
+    Map<String, Long> getLatencyMaxMicros();
+
+    double getBatchSizeMean();
+
+    Map<String, Long> getProperties();
+
+    Map<String, Long> getTickers();
+
+    double getHotKeyCacheHitRate();
+
+    void reset();
+}
@@ -17,8 +17,29 @@ package com.ntc.rocksdb;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import org.rocksdb.*;
@@ -38,11 +59,62 @@ public class RDBSingleConnection {
     private static Map<String, RDBSingleConnection> mapInstanceRDBSingleConn = new ConcurrentHashMap<String, RDBSingleConnection>();
     private static Map<String, String> mapInstanceRDBDir = new ConcurrentHashMap<>();
     private static Lock lockInstance = new ReentrantLock();
+    public static final String COUNTER_MERGE_OPERATOR = "uint64add";
+    /**
+     * Column family holding the entries of every registered IndexDefinition.
+     */
+    public static final String INDEX_COLUMN_FAMILY = "__index";
+    /**
+     * Column family holding the ValueCompression dictionaries.
+     */
+    public static final String DICTIONARY_COLUMN_FAMILY = "__dict";
+    private static final byte[] ACTIVE_DICTIONARY_KEY = {'a', 'c', 't', 'i', 'v', 'e'};
+    private static final int COMPACT_ALL_CHUNKS = 16;
+    private static final int INDEXED_DELETE_BATCH = 1000;
+    private static final long PARALLEL_SCAN_AWAIT_SECONDS = 30;
+    private static final DirectBufferPool bufferPool = new DirectBufferPool();
     
     private String dbDirectory;
     private RocksDB db;
     private Options options;
     private NRSerializer nrs;
+    private RDBConfig config;
+    private OptimisticTransactionDB txnDb;
+    private TtlDB ttlDb;
+    private StripedLock locks;
+    private final Map<ReadProfile, ReadOptions> mapReadOptions = new EnumMap<>(ReadProfile.class);
+    private final Map<WriteProfile, WriteOptions> mapWriteOptions = new EnumMap<>(WriteProfile.class);
+    private volatile ReadOptions readOptions;
+    private volatile WriteOptions writeOptions;
+    private volatile int multiGetSubBatch;
+    private volatile ExecutorService multiGetExecutor;
+    private volatile AsyncWriter asyncWriter;
+    private DBOptions dbOptions;
+    private ColumnFamilyHandle defaultHandle;
+    private final List<ColumnFamilyOptions> listCfOptions = new ArrayList<>();
+    private final List<ColumnFamilyHandle> listDroppedHandles = new ArrayList<>();
+    /**
+     * Filters and SharedCache references used by the options, closed after them.
+     */
+    private final List<AutoCloseable> listOptionsResources = new ArrayList<>();
+    private final Map<String, Namespace> mapNamespace = new ConcurrentHashMap<>();
+    private HotKeyCache hotKeyCache;
+    private boolean sharedCacheAcquired;
+    private Statistics statistics;
+    private RDBMetrics metrics;
+    private final IndexManager indexes = new IndexManager(this);
+    private ValueCodec valueCodec;
+    private ColumnFamilyHandle dictHandle;
+    private String instanceKey;
+    /**
+     * Opened through the public getInstance, only close() releases it.
+     */
+    private volatile boolean heldByCaller;
+    private int sharedRefs;
+    private boolean closed;
+    private String claimedDir;
+    private boolean rateLimiterAcquired;
+    private volatile CompactionController compaction;
 
     public String getDbDirectory() {
         return dbDirectory;
@@ -56,10 +128,125 @@ public class RDBSingleConnection {
         return options;
     }
 
+    /**
+     * Durability used by calls without a WriteProfile argument.
+     */
+    public void setDefaultWriteProfile(WriteProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("WriteProfile must not be null");
+        }
+        writeOptions = mapWriteOptions.get(profile);
+    }
+
+    public void setDefaultReadProfile(ReadProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("ReadProfile must not be null");
+        }
+        readOptions = mapReadOptions.get(profile);
+    }
+
+    /**
+     * Shared options of a profile, owned by the connection, do not close or modify.
+     */
+    public WriteOptions getWriteOptions(WriteProfile profile) {
+        return mapWriteOptions.get(profile);
+    }
+
+    public ReadOptions getReadOptions(ReadProfile profile) {
+        return mapReadOptions.get(profile);
+    }
+
+    /**
+     * New ReadOptions of a profile bound to a snapshot, the caller must close it.
+     */
+    public ReadOptions newReadOptions(ReadProfile profile, Snapshot snapshot) {
+        ReadOptions ro = profile.newReadOptions();
+        if (snapshot != null) {
+            ro.setSnapshot(snapshot);
+        }
+        return ro;
+    }
+
+    WriteOptions writeOptions() {
+        return writeOptions;
+    }
+
+    ReadOptions readOptions() {
+        return readOptions;
+    }
+
+    StripedLock locks() {
+        return locks;
+    }
+
+    public RDBConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Read cache in front of get/getByte, null unless RDBConfig.setHotKeyCacheBytes was set.
+     */
+    public HotKeyCache getHotKeyCache() {
+        return hotKeyCache;
+    }
+
+    /**
+     * Latency histograms, tickers and properties, null unless RDBConfig.setMetrics(true).
+     */
+    public RDBMetrics getMetrics() {
+        return metrics;
+    }
+
+    private long startTimer() {
+        return metrics != null ? System.nanoTime() : 0L;
+    }
+
+    private void stopTimer(RDBMetrics.Op op, long start) {
+        if (metrics != null) {
+            metrics.record(op, start);
+        }
+    }
+
+    private void recordBatchSize(int size) {
+        if (metrics != null) {
+            metrics.recordBatchSize(size);
+        }
+    }
+
+    private void invalidate(byte[] key) {
+        if (hotKeyCache != null) {
+            hotKeyCache.invalidate(key);
+        }
+    }
+
+    private void invalidateKeys(Collection<String> keys) {
+        if (hotKeyCache != null) {
+            for (String key : keys) {
+                if (key != null && !key.isEmpty()) {
+                    hotKeyCache.invalidate(bytes(key));
+                }
+            }
+        }
+    }
+
+    private void invalidateByteKeys(Collection<byte[]> keys) {
+        if (hotKeyCache != null) {
+            for (byte[] key : keys) {
+                if (key != null && key.length > 0) {
+                    hotKeyCache.invalidate(key);
+                }
+            }
+        }
+    }
+
     public NRSerializer getNRSerializer() {
         return nrs;
     }
 
+    public static DirectBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
     private RDBSingleConnection() {
     }
 
@@ -69,65 +256,382 @@ public class RDBSingleConnection {
             throw new ExceptionInInitializerError("Path to DB not empty.");
         }
         File dbDir = new File(pathDB);
-        if (mapInstanceRDBDir.containsKey(dbDir.getAbsolutePath())) {
-            throw new ExceptionInInitializerError("Path directory database was used by another service: " + pathDB);
+        OpenMode mode = config.getOpenMode();
+        // Only the primary owns the directory, read-only instances share it.
+        if (mode == OpenMode.READ_WRITE) {
+            String ownDir = dbDir.getAbsolutePath();
+            if (mapInstanceRDBDir.containsKey(ownDir)) {
+                throw new ExceptionInInitializerError("Path directory database was used by another service: " + ownDir);
+            }
+            mapInstanceRDBDir.put(ownDir, pathDB);
+            claimedDir = ownDir;
         }
-        mapInstanceRDBDir.put(dbDir.getAbsolutePath(), pathDB);
         dbDirectory = pathDB;
+        if (mode != OpenMode.READ_WRITE && !new File(dbDir, "CURRENT").exists()) {
+            throw new ExceptionInInitializerError("Path directory database not found for " + mode + ": " + pathDB);
+        }
         if (!dbDir.exists()) {
             if (!dbDir.mkdirs()) {
                 throw new ExceptionInInitializerError("Path directory database can not created for: " + pathDB);
             }
         }
         nrs = new NRSerializer();
-        db = RocksDB.open(options, dbDirectory);
+        for (ReadProfile rp : ReadProfile.values()) {
+            mapReadOptions.put(rp, rp.newReadOptions());
+        }
+        for (WriteProfile wp : WriteProfile.values()) {
+            mapWriteOptions.put(wp, wp.newWriteOptions());
+        }
+        readOptions = mapReadOptions.get(config.getReadProfile());
+        writeOptions = mapWriteOptions.get(config.getWriteProfile());
+        if (config.getHotKeyCacheBytes() > 0) {
+            hotKeyCache = new HotKeyCache(config.getHotKeyCacheBytes());
+        }
+        if (config.isMetrics()) {
+            statistics = new Statistics();
+            options.setStatistics(statistics);
+            metrics = new RDBMetrics(this, statistics);
+        }
+        // Open every existing column family, each one becomes a Namespace.
+        List<ColumnFamilyDescriptor> listDesc = new ArrayList<>();
+        listDesc.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, newColumnFamilyOptions(null)));
+        if (new File(dbDir, "CURRENT").exists()) {
+            for (byte[] cfName : RocksDB.listColumnFamilies(options, dbDirectory)) {
+                if (!Arrays.equals(cfName, RocksDB.DEFAULT_COLUMN_FAMILY)) {
+                    listDesc.add(new ColumnFamilyDescriptor(cfName, newColumnFamilyOptions(new String(cfName, StandardCharsets.UTF_8))));
+                }
+            }
+        }
+        dbOptions = new DBOptions(options);
+        List<ColumnFamilyHandle> listHandle = new ArrayList<>();
+        if (config.isOptimisticTransaction()) {
+            txnDb = OptimisticTransactionDB.open(dbOptions, dbDirectory, listDesc, listHandle);
+            db = txnDb;
+        } else if (config.getTtlSeconds() > 0) {
+            ttlDb = TtlDB.open(dbOptions, dbDirectory, listDesc, listHandle,
+                    Collections.nCopies(listDesc.size(), config.getTtlSeconds()), mode == OpenMode.READ_ONLY);
+            db = ttlDb;
+        } else if (mode == OpenMode.READ_ONLY) {
+            db = RocksDB.openReadOnly(dbOptions, dbDirectory, listDesc, listHandle);
+        } else {
+            db = RocksDB.open(dbOptions, dbDirectory, listDesc, listHandle);
+        }
+        defaultHandle = listHandle.get(0);
+        for (int i = 1; i < listHandle.size(); i++) {
+            String name = new String(listDesc.get(i).getName(), StandardCharsets.UTF_8);
+            if (INDEX_COLUMN_FAMILY.equals(name)) {
+                indexes.setHandle(listHandle.get(i));
+            } else if (DICTIONARY_COLUMN_FAMILY.equals(name)) {
+                dictHandle = listHandle.get(i);
+            } else {
+                mapNamespace.put(name, new Namespace(this, name, listHandle.get(i)));
+            }
+        }
+        if (metrics != null) {
+            metrics.registerMBean(new File(dbDirectory).getAbsolutePath());
+        }
+        if (config.getValueCompression() != null) {
+            initValueCodec(config.getValueCompression());
+        }
+        if (mode == OpenMode.READ_WRITE && config.getCompaction() != null) {
+            compaction = new CompactionController(this, config.getCompaction(), options.level0SlowdownWritesTrigger());
+        }
+    }
+
+    private void initValueCodec(ValueCompression vc) throws RocksDBException {
+        valueCodec = new ValueCodec(vc);
+        if (dictHandle != null) {
+            byte[] activeId = db.get(dictHandle, ACTIVE_DICTIONARY_KEY);
+            try (RocksIterator it = db.newIterator(dictHandle)) {
+                for (it.seekToFirst(); it.isValid(); it.next()) {
+                    if (it.key().length == 4) {
+                        valueCodec.addDictionary(it.value(), Arrays.equals(it.key(), activeId));
+                    }
+                }
+            }
+        }
+        if (vc.getDictionary() != null && vc.getDictionary().length > 0) {
+            if (config.getOpenMode() == OpenMode.READ_WRITE) {
+                storeDictionary(vc.getDictionary());
+            }
+            valueCodec.addDictionary(vc.getDictionary(), true);
+        }
+    }
+
+    /**
+     * Persist dict and make it the active dictionary of new writes. Older
+     * dictionaries are kept, values compressed with them stay readable.
+     */
+    private void storeDictionary(byte[] dict) throws RocksDBException {
+        lockInstance.lock();
+        try {
+            if (dictHandle == null) {
+                ColumnFamilyDescriptor desc = new ColumnFamilyDescriptor(DICTIONARY_COLUMN_FAMILY.getBytes(StandardCharsets.UTF_8), newColumnFamilyOptions(null));
+                // no TTL for dictionaries, values may outlive any TTL
+                dictHandle = db.createColumnFamily(desc);
+            }
+        } finally {
+            lockInstance.unlock();
+        }
+        byte[] id = new byte[4];
+        Codecs.writeInt(ValueCodec.dictionaryId(dict), id, 0);
+        try (WriteBatch batch = new WriteBatch(); WriteOptions wo = new WriteOptions().setSync(true)) {
+            batch.put(dictHandle, id, dict);
+            batch.put(dictHandle, ACTIVE_DICTIONARY_KEY, id);
+            db.write(wo, batch);
+        }
+    }
+
+    /**
+     * Train a dictionary of at most maxBytes from about maxSamples values spread
+     * over the keyspace, store it and use it for new writes.
+     * Requires RDBConfig.setValueCompression. Returns the dictionary size.
+     */
+    public int trainCompressionDictionary(int maxSamples, int maxBytes) throws RocksDBException {
+        if (valueCodec == null) {
+            throw new IllegalStateException("Value compression is not enabled, see RDBConfig.setValueCompression");
+        }
+        int perRange = 8;
+        List<byte[]> splits = splitKeys(Math.max(1, maxSamples / perRange));
+        List<byte[]> samples = new ArrayList<>();
+        int minSize = config.getValueCompression().getMinSize();
+        for (int i = 0; i <= splits.size() && samples.size() < maxSamples; i++) {
+            byte[] from = i > 0 ? splits.get(i - 1) : null;
+            byte[] to = i < splits.size() ? splits.get(i) : null;
+            try (RDBIterator it = newIterator(from, to, false, null, ReadProfile.SCAN)) {
+                int taken = 0;
+                while (taken < perRange && samples.size() < maxSamples && it.hasNext()) {
+                    byte[] value = it.next().getValue();
+                    if (value.length >= minSize) {
+                        samples.add(value);
+                        taken++;
+                    }
+                }
+            }
+        }
+        byte[] dict = ValueCompression.trainDictionary(samples, maxBytes);
+        if (dict.length > 0) {
+            storeDictionary(dict);
+            valueCodec.addDictionary(dict, true);
+        }
+        return dict.length;
+    }
+
+    byte[] encodeValue(byte[] value) {
+        byte[] rs = valueCodec != null ? valueCodec.encode(value) : value;
+        // in TTL mode a raw value that looks like a TtlValue header gets one that never expires
+        return ttlMode() && TtlValue.hasHeader(rs) ? TtlValue.wrapNoExpiry(rs) : rs;
+    }
+
+    /**
+     * Value as written by the application, for raw values read from getDb()
+     * or a RocksIterator when ValueCompression or TTL mode is enabled.
+     * Null when stored is null or its putTtl expiry has passed.
+     */
+    public byte[] decodeValue(byte[] stored) {
+        if (ttlMode()) {
+            stored = TtlValue.unwrap(stored, System.currentTimeMillis());
+        }
+        return valueCodec != null ? valueCodec.decode(stored) : stored;
+    }
+
+    private boolean ttlMode() {
+        return config.getTtlSeconds() > 0;
+    }
+
+    /**
+     * Stored values differ from the application values, so zero-copy paths go through the heap.
+     */
+    private boolean transformsValues() {
+        return valueCodec != null || ttlMode();
+    }
+
+    public OpenMode getOpenMode() {
+        return config.getOpenMode();
+    }
+
+    private ColumnFamilyOptions newColumnFamilyOptions(String name) {
+        NamespaceOptions nsOpts = name != null ? config.getNamespaceOptions(name) : null;
+        ColumnFamilyOptions cfo = nsOpts != null ? nsOpts.toColumnFamilyOptions(options, listOptionsResources) : new ColumnFamilyOptions(options);
+        listCfOptions.add(cfo);
+        return cfo;
+    }
+
+    /**
+     * Namespace backed by the column family name, created if missing.
+     * nsOpts is used only on creation, null takes RDBConfig.getNamespaceOptions(name)
+     * or the database options.
+     */
+    public Namespace createNamespace(String name, NamespaceOptions nsOpts) throws RocksDBException {
+        if (name == null || name.isEmpty() || name.equals(new String(RocksDB.DEFAULT_COLUMN_FAMILY, StandardCharsets.UTF_8))
+                || name.equals(INDEX_COLUMN_FAMILY) || name.equals(DICTIONARY_COLUMN_FAMILY)) {
+            throw new IllegalArgumentException("Invalid namespace name: " + name);
+        }
+        lockInstance.lock();
+        try {
+            Namespace ns = mapNamespace.get(name);
+            if (ns == null) {
+                ColumnFamilyOptions cfo = nsOpts != null ? nsOpts.toColumnFamilyOptions(options, listOptionsResources) : newColumnFamilyOptions(name);
+                if (nsOpts != null) {
+                    listCfOptions.add(cfo);
+                }
+                ColumnFamilyDescriptor desc = new ColumnFamilyDescriptor(name.getBytes(StandardCharsets.UTF_8), cfo);
+                ColumnFamilyHandle handle = ttlDb != null ? ttlDb.createColumnFamilyWithTtl(desc, config.getTtlSeconds()) : db.createColumnFamily(desc);
+                ns = new Namespace(this, name, handle);
+                mapNamespace.put(name, ns);
+            }
+            return ns;
+        } finally {
+            lockInstance.unlock();
+        }
+    }
+
+    public Namespace createNamespace(String name) throws RocksDBException {
+        return createNamespace(name, null);
+    }
+
+    /**
+     * Existing namespace or null.
+     */
+    public Namespace getNamespace(String name) {
+        return name != null ? mapNamespace.get(name) : null;
+    }
+
+    public Set<String> listNamespaces() {
+        return Collections.unmodifiableSet(mapNamespace.keySet());
+    }
+
+    /**
+     * Drop the column family and all its data, without a scan-and-delete.
+     */
+    public void dropNamespace(String name) throws RocksDBException {
+        lockInstance.lock();
+        try {
+            Namespace ns = name != null ? mapNamespace.remove(name) : null;
+            if (ns != null) {
+                ColumnFamilyHandle handle = ns.getHandle();
+                ns.markDropped();
+                db.dropColumnFamily(handle);
+                // a caller may be inside a call on ns, free the handle with the connection
+                listDroppedHandles.add(handle);
+            }
+        } finally {
+            lockInstance.unlock();
+        }
     }
     
-    private RDBSingleConnection(String pathDB) throws RocksDBException {
-        options = new Options().setCreateIfMissing(true);
-        init(pathDB);
+    /**
+     * Options used when none are given: create if missing and the uint64add
+     * merge operator for the counter API.
+     * Custom Options must set setMergeOperatorName("uint64add") to use counters.
+     */
+    public static Options newDefaultOptions() {
+        return new Options().setCreateIfMissing(true).setMergeOperatorName(COUNTER_MERGE_OPERATOR);
     }
     
-    private RDBSingleConnection(String pathDB, Options opts) throws RocksDBException {
-        if (opts == null) {
-            opts = new Options().setCreateIfMissing(true);
+    private RDBSingleConnection(String pathDB, RDBConfig config) throws RocksDBException {
+        this.config = config;
+        if (config.isOptimisticTransaction() && config.getTtlSeconds() > 0) {
+            throw new IllegalArgumentException("TTL mode can not be combined with optimistic transactions");
+        }
+        if (config.getOpenMode() != OpenMode.READ_WRITE && config.isOptimisticTransaction()) {
+            throw new IllegalArgumentException(config.getOpenMode() + " can not be combined with optimistic transactions");
+        }
+        if (config.getHotKeyCacheBytes() > 0 && config.getTtlSeconds() > 0) {
+            // cached entries would outlive their TTL
+            throw new IllegalArgumentException("TTL mode can not be combined with the hot key cache");
+        }
+        options = config.getOptions() != null ? config.getOptions() : newDefaultOptions();
+        if (config.getPreset() != null) {
+            SharedCache.acquire();
+            sharedCacheAcquired = true;
+            listOptionsResources.add(config.getPreset().apply(options, SharedCache.getBlockCache(), SharedCache.getWriteBufferManager()));
+        }
+        if (config.getCompaction() != null) {
+            if (config.getCompaction().isRateLimited()) {
+                SharedRateLimiter.acquire();
+                rateLimiterAcquired = true;
+            }
+            config.getCompaction().apply(options);
+        }
+        locks = new StripedLock(config.getLockStripes());
+        boolean opened = false;
+        try {
+            init(pathDB);
+            opened = true;
+        } finally {
+            if (!opened) {
+                if (claimedDir != null) {
+                    mapInstanceRDBDir.remove(claimedDir);
+                }
+                closeOptionsResources();
+                if (sharedCacheAcquired) {
+                    sharedCacheAcquired = false;
+                    SharedCache.release();
+                }
+                if (rateLimiterAcquired) {
+                    rateLimiterAcquired = false;
+                    SharedRateLimiter.release();
+                }
+            }
         }
-        options = opts;
-        init(pathDB);
     }
 
-    public static RDBSingleConnection getInstance(String pathDB) throws RocksDBException {
-        if (pathDB == null || pathDB.isEmpty()) {
-            return null;
-        }
-        RDBSingleConnection _instance = mapInstanceRDBSingleConn.containsKey(pathDB) ? mapInstanceRDBSingleConn.get(pathDB) : null;
-        if (_instance == null) {
-            lockInstance.lock();
+    private void closeOptionsResources() {
+        for (AutoCloseable res : listOptionsResources) {
             try {
-                _instance = mapInstanceRDBSingleConn.containsKey(pathDB) ? mapInstanceRDBSingleConn.get(pathDB) : null;
-                if (_instance == null) {
-                    _instance = new RDBSingleConnection(pathDB);
-                    mapInstanceRDBSingleConn.put(pathDB, _instance);
-                }
-            } finally {
-                lockInstance.unlock();
+                res.close();
+            } catch (Exception ex) {
+                logger.error("closeOptionsResources: ", ex);
             }
         }
-        return _instance;
+        listOptionsResources.clear();
+    }
+
+    public static RDBSingleConnection getInstance(String pathDB) throws RocksDBException {
+        return getInstance(pathDB, new RDBConfig());
     }
     
     public static RDBSingleConnection getInstance(String pathDB, Options opts) throws RocksDBException {
+        return getInstance(pathDB, new RDBConfig().setOptions(opts));
+    }
+    
+    /**
+     * One instance per path and open mode: READ_WRITE and READ_ONLY instances
+     * are keyed apart, so a process can hold a primary and a reader side by side.
+     */
+    public static RDBSingleConnection getInstance(String pathDB, RDBConfig config) throws RocksDBException {
+        return getInstance(pathDB, config, false);
+    }
+
+    /**
+     * getInstance for holders inside the library such as ShardedRDB, paired
+     * with releaseShared() so they never close an instance someone else holds.
+     */
+    static RDBSingleConnection acquireShared(String pathDB, RDBConfig config) throws RocksDBException {
+        return getInstance(pathDB, config, true);
+    }
+
+    private static RDBSingleConnection getInstance(String pathDB, RDBConfig config, boolean shared) throws RocksDBException {
         if (pathDB == null || pathDB.isEmpty()) {
             return null;
         }
-        RDBSingleConnection _instance = mapInstanceRDBSingleConn.containsKey(pathDB) ? mapInstanceRDBSingleConn.get(pathDB) : null;
-        if (_instance == null) {
+        config = config != null ? config : new RDBConfig();
+        String key = instanceKey(pathDB, config);
+        RDBSingleConnection _instance = mapInstanceRDBSingleConn.containsKey(key) ? mapInstanceRDBSingleConn.get(key) : null;
+        if (_instance == null || shared || !_instance.heldByCaller) {
             lockInstance.lock();
             try {
-                _instance = mapInstanceRDBSingleConn.containsKey(pathDB) ? mapInstanceRDBSingleConn.get(pathDB) : null;
+                _instance = mapInstanceRDBSingleConn.containsKey(key) ? mapInstanceRDBSingleConn.get(key) : null;
                 if (_instance == null) {
-                    _instance = new RDBSingleConnection(pathDB, opts);
-                    mapInstanceRDBSingleConn.put(pathDB, _instance);
+                    _instance = new RDBSingleConnection(pathDB, config);
+                    _instance.instanceKey = key;
+                    mapInstanceRDBSingleConn.put(key, _instance);
+                }
+                if (shared) {
+                    _instance.sharedRefs++;
+                } else {
+                    _instance.heldByCaller = true;
                 }
             } finally {
                 lockInstance.unlock();
@@ -136,89 +640,457 @@ public class RDBSingleConnection {
         return _instance;
     }
 
+    /**
+     * Drop a reference taken by acquireShared, the instance is closed when it
+     * was the last one and no getInstance caller holds it.
+     */
+    void releaseShared() {
+        lockInstance.lock();
+        try {
+            if (sharedRefs > 0 && --sharedRefs == 0 && !heldByCaller && mapInstanceRDBSingleConn.get(instanceKey) == this) {
+                closeInstance();
+            }
+        } finally {
+            lockInstance.unlock();
+        }
+    }
+
+    private static String instanceKey(String pathDB, RDBConfig config) {
+        switch (config.getOpenMode()) {
+            case READ_ONLY:
+                return pathDB + "?readonly";
+            default:
+                return pathDB;
+        }
+    }
+
+    /**
+     * Read-only view of an existing database, may be opened by any number of
+     * processes while a primary writes to it. Sees the data as of open time.
+     */
+    public static RDBSingleConnection openReadOnly(String pathDB) throws RocksDBException {
+        return getInstance(pathDB, new RDBConfig().setOpenMode(OpenMode.READ_ONLY));
+    }
+
+    /**
+     * Split multiGet requests larger than subBatchSize into sorted sub-batches
+     * and run them on a bounded pool of nThreads threads.
+     * Pass subBatchSize <= 0 or nThreads <= 0 to turn it off.
+     */
+    public void setParallelMultiGet(int subBatchSize, int nThreads) {
+        lockInstance.lock();
+        try {
+            ExecutorService old = multiGetExecutor;
+            if (subBatchSize > 0 && nThreads > 0) {
+                multiGetExecutor = newMultiGetExecutor(nThreads);
+                multiGetSubBatch = subBatchSize;
+            } else {
+                multiGetSubBatch = 0;
+                multiGetExecutor = null;
+            }
+            if (old != null) {
+                old.shutdown();
+            }
+        } finally {
+            lockInstance.unlock();
+        }
+    }
+
+    private ExecutorService newMultiGetExecutor(int nThreads) {
+        final AtomicInteger counter = new AtomicInteger();
+        ThreadFactory tf = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "rdb-multiget-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+        // Bounded queue, the caller runs the sub-batch itself when the pool is saturated.
+        return new ThreadPoolExecutor(nThreads, nThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(nThreads * 4), tf, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Start the group committer used by putAsync/putByteAsync/deleteAsync/deleteByteAsync.
+     * A running writer is flushed and replaced.
+     * The group commit writes raw batches, so these calls are rejected while
+     * an index is registered; use RDBAsyncConnection there instead.
+     */
+    public AsyncWriter enableAsyncWriter(AsyncWriterConfig writerConfig) {
+        lockInstance.lock();
+        try {
+            AsyncWriter old = asyncWriter;
+            asyncWriter = new AsyncWriter(db, writerConfig != null ? writerConfig : new AsyncWriterConfig(), "rdb-async-writer-" + dbDirectory);
+            if (old != null) {
+                old.close();
+            }
+            return asyncWriter;
+        } finally {
+            lockInstance.unlock();
+        }
+    }
+
+    public AsyncWriter getAsyncWriter() {
+        return asyncWriter;
+    }
+
+    private AsyncWriter requireAsyncWriter() {
+        checkNoIndexes("AsyncWriter");
+        AsyncWriter writer = asyncWriter;
+        if (writer == null) {
+            throw new IllegalStateException("AsyncWriter is not enabled, call enableAsyncWriter first");
+        }
+        return writer;
+    }
+
+    public CompletableFuture<Void> putAsync(String key, String value) {
+        if (key != null && !key.isEmpty() && value != null && !value.isEmpty()) {
+            return invalidateAfter(requireAsyncWriter().put(bytes(key), encodeValue(bytes(value))), bytes(key));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public CompletableFuture<Void> putByteAsync(byte[] key, byte[] value) {
+        if (key != null && key.length > 0 && value != null && value.length > 0) {
+            return invalidateAfter(requireAsyncWriter().put(key, encodeValue(value)), key);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public CompletableFuture<Void> deleteAsync(String key) {
+        if (key != null && !key.isEmpty()) {
+            return invalidateAfter(requireAsyncWriter().delete(bytes(key)), bytes(key));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public CompletableFuture<Void> deleteByteAsync(byte[] key) {
+        if (key != null && key.length > 0) {
+            return invalidateAfter(requireAsyncWriter().delete(key), key);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * The returned stage completes after the cache entry is dropped, so a read
+     * following join() does not see the old cached value.
+     */
+    private CompletableFuture<Void> invalidateAfter(CompletableFuture<Void> future, final byte[] key) {
+        if (hotKeyCache == null) {
+            return future;
+        }
+        return future.whenComplete((v, ex) -> hotKeyCache.invalidate(key));
+    }
+
+    /**
+     * Release the getInstance caller's hold. The db is closed now unless
+     * acquireShared holders (e.g. a ShardedRDB) still use it, then the last
+     * releaseShared() closes it.
+     */
     public void close() {
+        lockInstance.lock();
+        try {
+            heldByCaller = false;
+            if (sharedRefs > 0) {
+                return;
+            }
+            closeInstance();
+        } finally {
+            lockInstance.unlock();
+        }
+    }
+
+    private void closeInstance() {
+        if (closed) {
+            return;
+        }
+        closed = true;
         try {
-            if (db != null) {
+            // independent steps, a failing one must not leak the native handles after it
+            boolean dbIdle = true;
+            CompactionController cc = compaction;
+            if (cc != null) {
+                compaction = null;
+                dbIdle = cc.close();
+            }
+            AsyncWriter writer = asyncWriter;
+            if (writer != null) {
+                asyncWriter = null;
+                // flush pending writes before the db goes away
+                closeStep("asyncWriter", writer);
+            }
+            ExecutorService executor = multiGetExecutor;
+            if (executor != null) {
+                multiGetExecutor = null;
+                closeStep("multiGetExecutor", executor::shutdown);
+            }
+            if (!dbIdle) {
+                // a compaction still runs on the db, leave it and its options open
+                logger.error("close: " + dbDirectory + " left open, off-peak compaction did not stop");
+            } else {
+                for (Namespace ns : mapNamespace.values()) {
+                    closeStep("namespace", ns.handle());
+                }
+                for (ColumnFamilyHandle handle : listDroppedHandles) {
+                    closeStep("droppedHandle", handle);
+                }
+                closeStep("indexHandle", indexes.getHandle());
+                closeStep("dictHandle", dictHandle);
+                closeStep("defaultHandle", defaultHandle);
                 // be sure to release the c++ pointer
-                db.close();
+                closeStep("db", db);
+                for (ColumnFamilyOptions cfo : listCfOptions) {
+                    closeStep("cfOptions", cfo);
+                }
+                closeStep("dbOptions", dbOptions);
+                closeStep("statistics", statistics);
+                for (ReadOptions ro : mapReadOptions.values()) {
+                    closeStep("readOptions", ro);
+                }
+                for (WriteOptions wo : mapWriteOptions.values()) {
+                    closeStep("writeOptions", wo);
+                }
+                if (options != null) {
+                    // be sure to dispose c++ pointers
+                    closeStep("options", options::dispose);
+                }
+                closeOptionsResources();
+            }
+            mapNamespace.clear();
+            if (metrics != null) {
+                closeStep("metrics", metrics::unregisterMBean);
+            }
+            if (sharedCacheAcquired) {
+                sharedCacheAcquired = false;
+                closeStep("sharedCache", SharedCache::release);
             }
-            if (options != null) {
-                // be sure to dispose c++ pointers
-                options.dispose();
+            if (rateLimiterAcquired) {
+                rateLimiterAcquired = false;
+                closeStep("rateLimiter", SharedRateLimiter::release);
+            }
+        } finally {
+            // release the path so it can be opened again in this process
+            lockInstance.lock();
+            try {
+                if (instanceKey != null) {
+                    mapInstanceRDBSingleConn.remove(instanceKey, this);
+                }
+                if (claimedDir != null) {
+                    mapInstanceRDBDir.remove(claimedDir);
+                    claimedDir = null;
+                }
+            } finally {
+                lockInstance.unlock();
             }
-        } catch (Exception e) {
-            logger.error("close: ", e);
+        }
+    }
+
+    private void closeStep(String name, AutoCloseable res) {
+        if (res == null) {
+            return;
+        }
+        try {
+            res.close();
+        } catch (Exception ex) {
+            logger.error("close " + name + ": ", ex);
         }
     }
 
     public void put(String key, String value) {
+        long start = startTimer();
         try {
             if (key != null && !key.isEmpty() && value != null && !value.isEmpty()) {
-                db.put(bytes(key), bytes(value));
+                byte[] bk = bytes(key);
+                if (indexes.isActive()) {
+                    indexes.write(writeOptions, Collections.singletonMap(bk, bytes(value)), null);
+                } else {
+                    db.put(writeOptions, bk, encodeValue(bytes(value)));
+                }
+                invalidate(bk);
             }
         } catch (Exception ex) {
             logger.error("put: ", ex);
+        } finally {
+            stopTimer(RDBMetrics.Op.PUT, start);
         }
     }
 
     public void putBatch(Map<String, String> mapData) throws IOException {
+        putBatch(mapData, writeOptions);
+    }
+
+    public void putBatch(Map<String, String> mapData, WriteProfile profile) throws IOException {
+        putBatch(mapData, mapWriteOptions.get(profile));
+    }
+
+    private void putBatch(Map<String, String> mapData, WriteOptions wo) throws IOException {
         if (mapData != null && !mapData.isEmpty()) {
+            throttleBatch();
+            if (indexes.isActive()) {
+                try {
+                    writeIndexed(wo, bytesMap(mapData), null, RDBMetrics.Op.PUT_BATCH);
+                } catch (Exception ex) {
+                    logger.error("putBatch: ", ex);
+                }
+                return;
+            }
+            long start = startTimer();
             WriteBatch batch = new WriteBatch();
             try {
                 for (String key : mapData.keySet()) {
                     String value = mapData.get(key);
                     if (key != null && !key.isEmpty() && value != null && !value.isEmpty()) {
-                        batch.put(bytes(key), bytes(value));
+                        batch.put(bytes(key), encodeValue(bytes(value)));
                     }
                 }
-                db.write(new WriteOptions(), batch);
+                db.write(wo, batch);
+                invalidateKeys(mapData.keySet());
             } catch (Exception ex) {
                 logger.error("putBatch: ", ex);
             } finally {
                 // Make sure you close the batch to avoid resource leaks.
                 batch.close();
+                stopTimer(RDBMetrics.Op.PUT_BATCH, start);
+                recordBatchSize(mapData.size());
             }
         }
     }
 
     public void putByte(byte[] key, byte[] value) {
+        putByte(key, value, writeOptions);
+    }
+
+    public void putByte(byte[] key, byte[] value, WriteProfile profile) {
+        putByte(key, value, mapWriteOptions.get(profile));
+    }
+
+    private void putByte(byte[] key, byte[] value, WriteOptions wo) {
         try {
-            if (key != null && key.length > 0 && value != null && value.length > 0) {
-                db.put(key, value);
-            }
+            putByteChecked(key, value, wo);
         } catch (Exception ex) {
             logger.error("putByte: ", ex);
         }
     }
 
-    public void putBatchByte(Map<byte[], byte[]> mapData) throws IOException {
-        if (mapData != null && !mapData.isEmpty()) {
-            WriteBatch batch = new WriteBatch();
-            try {
-                for (byte[] key : mapData.keySet()) {
-                    byte[] value = mapData.get(key);
-                    if (key != null && key.length > 0 && value != null && value.length > 0) {
-                        batch.put(key, value);
-                    }
+    /**
+     * putByte that throws instead of logging, for RDBAsyncConnection.
+     * wo null means the default write profile.
+     */
+    void putByteChecked(byte[] key, byte[] value, WriteOptions wo) throws RocksDBException {
+        long start = startTimer();
+        try {
+            if (key != null && key.length > 0 && value != null && value.length > 0) {
+                if (indexes.isActive()) {
+                    indexes.write(wo != null ? wo : writeOptions, Collections.singletonMap(key, value), null);
+                } else {
+                    db.put(wo != null ? wo : writeOptions, key, encodeValue(value));
                 }
-                db.write(new WriteOptions(), batch);
-            } catch (Exception ex) {
-                logger.error("putBatchByte: ", ex);
-            } finally {
-                // Make sure you close the batch to avoid resource leaks.
-                batch.close();
+                invalidate(key);
             }
+        } finally {
+            stopTimer(RDBMetrics.Op.PUT, start);
         }
     }
 
-    public String get(String key) {
+    /**
+     * Zero-copy put from direct buffers, reads key and value between position
+     * and limit. Like RocksDB.put, both positions are advanced to their limit,
+     * also when indexes, ValueCompression or TTL mode make it copy the bytes to heap.
+     */
+    public void put(ByteBuffer key, ByteBuffer value) throws RocksDBException {
+        checkDirect(key, "key");
+        checkDirect(value, "value");
+        if (indexes.isActive() || transformsValues()) {
+            byte[] bk = new byte[key.remaining()];
+            byte[] bv = new byte[value.remaining()];
+            key.get(bk);
+            value.get(bv);
+            putByteChecked(bk, bv, null);
+            return;
+        }
+        long start = startTimer();
         try {
-            if (key != null && !key.isEmpty()) {
-                byte[] bv = db.get(bytes(key));
-                return bv != null ? nrs.deserializeString(bv) : null;
+            byte[] bk = null;
+            if (hotKeyCache != null) {
+                bk = new byte[key.remaining()];
+                key.duplicate().get(bk);
+            }
+            db.put(writeOptions, key, value);
+            if (bk != null) {
+                hotKeyCache.invalidate(bk);
+            }
+        } finally {
+            stopTimer(RDBMetrics.Op.PUT, start);
+        }
+    }
+
+    public void putBatchByte(Map<byte[], byte[]> mapData) throws IOException {
+        putBatchByte(mapData, writeOptions);
+    }
+
+    public void putBatchByte(Map<byte[], byte[]> mapData, WriteProfile profile) throws IOException {
+        putBatchByte(mapData, mapWriteOptions.get(profile));
+    }
+
+    private void putBatchByte(Map<byte[], byte[]> mapData, WriteOptions wo) throws IOException {
+        if (mapData != null && !mapData.isEmpty()) {
+            throttleBatch();
+            if (indexes.isActive()) {
+                try {
+                    writeIndexed(wo, mapData, null, RDBMetrics.Op.PUT_BATCH);
+                } catch (Exception ex) {
+                    logger.error("putBatchByte: ", ex);
+                }
+                return;
+            }
+            long start = startTimer();
+            WriteBatch batch = new WriteBatch();
+            try {
+                for (byte[] key : mapData.keySet()) {
+                    byte[] value = mapData.get(key);
+                    if (key != null && key.length > 0 && value != null && value.length > 0) {
+                        batch.put(key, encodeValue(value));
+                    }
+                }
+                db.write(wo, batch);
+                invalidateByteKeys(mapData.keySet());
+            } catch (Exception ex) {
+                logger.error("putBatchByte: ", ex);
+            } finally {
+                // Make sure you close the batch to avoid resource leaks.
+                batch.close();
+                stopTimer(RDBMetrics.Op.PUT_BATCH, start);
+                recordBatchSize(mapData.size());
+            }
+        }
+    }
+
+    public String get(String key) {
+        long start = startTimer();
+        try {
+            if (key != null && !key.isEmpty()) {
+                byte[] bk = bytes(key);
+                HotKeyCache cache = hotKeyCache;
+                if (cache == null) {
+                    byte[] bv = decodeValue(db.get(readOptions, bk));
+                    return bv != null ? nrs.deserializeString(bv) : null;
+                }
+                String value = cache.getString(bk);
+                if (value == null) {
+                    long stamp = cache.stamp(bk);
+                    byte[] bv = decodeValue(db.get(readOptions, bk));
+                    if (bv != null) {
+                        cache.put(bk, bv, stamp);
+                        value = nrs.deserializeString(bv);
+                    }
+                }
+                return value;
             }
         } catch (Exception ex) {
             logger.error("get: ", ex);
+        } finally {
+            stopTimer(RDBMetrics.Op.GET, start);
         }
         return null;
     }
@@ -226,11 +1098,16 @@ public class RDBSingleConnection {
     public Map<String, String> getList(List<String> listKey) throws RocksDBException {
         Map<String, String> rs = new LinkedHashMap<>();
         if (listKey != null && !listKey.isEmpty()) {
-            for (String key : listKey) {
-                if (key != null && !key.isEmpty()) {
-                    byte[] bv = db.get(bytes(key));
-                    String value = bv != null ? nrs.deserializeString(bv) : null;
-                    rs.put(key, value);
+            byte[][] arrKey = new byte[listKey.size()][];
+            for (int i = 0; i < arrKey.length; i++) {
+                String key = listKey.get(i);
+                arrKey[i] = key != null && !key.isEmpty() ? bytes(key) : null;
+            }
+            byte[][] arrValue = getListByte(arrKey);
+            for (int i = 0; i < arrKey.length; i++) {
+                if (arrKey[i] != null) {
+                    byte[] bv = arrValue[i];
+                    rs.put(listKey.get(i), bv != null ? nrs.deserializeString(bv) : null);
                 }
             }
         }
@@ -239,50 +1116,283 @@ public class RDBSingleConnection {
 
     public byte[] getByte(byte[] key) {
         try {
-            if (key != null && key.length > 0) {
-                return db.get(key);
-            }
+            return getByteChecked(key);
+        } catch (Exception ex) {
+            logger.error("getByte: ", ex);
+        }
+        return null;
+    }
+
+    /**
+     * getByte that throws instead of logging, for RDBAsyncConnection.
+     */
+    byte[] getByteChecked(byte[] key) throws RocksDBException {
+        HotKeyCache cache = hotKeyCache;
+        if (cache == null || key == null || key.length == 0) {
+            return getByteChecked(key, readOptions);
+        }
+        long start = startTimer();
+        byte[] bv = cache.get(key);
+        if (bv != null) {
+            stopTimer(RDBMetrics.Op.GET, start);
+            // the cached array is shared, callers get their own copy
+            return bv.clone();
+        }
+        long stamp = cache.stamp(key);
+        bv = getByteChecked(key, readOptions);
+        if (bv != null) {
+            cache.put(key.clone(), bv.clone(), stamp);
+        }
+        return bv;
+    }
+
+    public byte[] getByte(byte[] key, ReadProfile profile) {
+        return getByte(key, mapReadOptions.get(profile));
+    }
+
+    private byte[] getByte(byte[] key, ReadOptions ro) {
+        try {
+            return getByteChecked(key, ro);
         } catch (Exception ex) {
             logger.error("getByte: ", ex);
         }
         return null;
     }
 
+    private byte[] getByteChecked(byte[] key, ReadOptions ro) throws RocksDBException {
+        long start = startTimer();
+        try {
+            if (key != null && key.length > 0) {
+                return decodeValue(db.get(ro, key));
+            }
+        } finally {
+            stopTimer(RDBMetrics.Op.GET, start);
+        }
+        return null;
+    }
+
+    /**
+     * Zero-copy get into a direct buffer.
+     * Returns the full size of the value or RocksDB.NOT_FOUND. When the size is
+     * larger than valueOut.remaining() only a prefix is copied, retry with a
+     * buffer of at least that size, e.g. from getBufferPool().valueBuffer(size).
+     */
+    public int get(ByteBuffer key, ByteBuffer valueOut) throws RocksDBException {
+        checkDirect(key, "key");
+        checkDirect(valueOut, "valueOut");
+        if (transformsValues()) {
+            // compressed and TTL values must be decoded on heap first
+            // and copied out with the same buffer contract as db.get
+            byte[] bk = new byte[key.remaining()];
+            key.get(bk);
+            byte[] bv = getByteChecked(bk);
+            if (bv == null) {
+                return RocksDB.NOT_FOUND;
+            }
+            int n = Math.min(bv.length, valueOut.remaining());
+            valueOut.duplicate().put(bv, 0, n);
+            valueOut.limit(valueOut.position() + n);
+            return bv.length;
+        }
+        long start = startTimer();
+        try {
+            return db.get(readOptions, key, valueOut);
+        } finally {
+            stopTimer(RDBMetrics.Op.GET, start);
+        }
+    }
+
+    /**
+     * Same as get(ByteBuffer, ByteBuffer), the key is copied into the
+     * per-thread key buffer of the pool.
+     */
+    public int get(byte[] key, ByteBuffer valueOut) throws RocksDBException {
+        ByteBuffer bk = bufferPool.keyBuffer(key.length);
+        bk.put(key).flip();
+        return get(bk, valueOut);
+    }
+
+    /**
+     * Reject a write path that can not maintain secondary indexes while one
+     * is registered.
+     */
+    void checkNoIndexes(String name) {
+        if (indexes.isActive()) {
+            throw new IllegalStateException(name + " bypasses secondary indexes and is not supported while an index is registered");
+        }
+    }
+
+    private static void checkDirect(ByteBuffer bb, String name) {
+        if (bb == null || !bb.isDirect()) {
+            throw new IllegalArgumentException(name + " must be a direct ByteBuffer");
+        }
+    }
+
     public Map<byte[], byte[]> getListByte(List<byte[]> listKey) throws RocksDBException {
         Map<byte[], byte[]> rs = new LinkedHashMap<>();
         if (listKey != null && !listKey.isEmpty()) {
-            for (byte[] key : listKey) {
+            byte[][] arrKey = listKey.toArray(new byte[listKey.size()][]);
+            byte[][] arrValue = getListByte(arrKey);
+            for (int i = 0; i < arrKey.length; i++) {
+                byte[] key = arrKey[i];
                 if (key != null && key.length > 0) {
-                    byte[] value = db.get(key);
-                    rs.put(key, value);
+                    rs.put(key, arrValue[i]);
                 }
             }
         }
         return rs;
     }
 
+    /**
+     * Batched lookup with one multiGet over the sorted keys.
+     * Result is aligned with arrKey, null or empty keys get a null value.
+     */
+    public byte[][] getListByte(byte[][] arrKey) throws RocksDBException {
+        byte[][] rs = multiGet(defaultHandle, arrKey);
+        if (transformsValues()) {
+            for (int i = 0; i < rs.length; i++) {
+                rs[i] = decodeValue(rs[i]);
+            }
+        }
+        return rs;
+    }
+
+    byte[][] multiGet(ColumnFamilyHandle cf, byte[][] arrKey) throws RocksDBException {
+        if (arrKey == null) {
+            return new byte[0][];
+        }
+        int n = 0;
+        for (byte[] key : arrKey) {
+            if (key != null && key.length > 0) {
+                n++;
+            }
+        }
+        byte[][] rs = new byte[arrKey.length][];
+        if (n == 0) {
+            return rs;
+        }
+        byte[][] sortedKey = new byte[n][];
+        n = 0;
+        for (byte[] key : arrKey) {
+            if (key != null && key.length > 0) {
+                sortedKey[n++] = key;
+            }
+        }
+        long start = startTimer();
+        // Sorted keys let RocksDB walk memtable and SST blocks in one direction.
+        Arrays.sort(sortedKey, BytesUtil.COMPARATOR);
+        byte[][] sortedValue = multiGetSorted(cf, sortedKey);
+        stopTimer(RDBMetrics.Op.GET_LIST, start);
+        recordBatchSize(n);
+        for (int i = 0; i < arrKey.length; i++) {
+            byte[] key = arrKey[i];
+            if (key != null && key.length > 0) {
+                rs[i] = sortedValue[Arrays.binarySearch(sortedKey, key, BytesUtil.COMPARATOR)];
+            }
+        }
+        return rs;
+    }
+
+    private byte[][] multiGetSorted(ColumnFamilyHandle cf, final byte[][] sortedKey) throws RocksDBException {
+        final byte[][] rs = new byte[sortedKey.length][];
+        final List<byte[]> listKey = Arrays.asList(sortedKey);
+        final List<ColumnFamilyHandle> listCf = Collections.nCopies(sortedKey.length, cf);
+        int subBatch = multiGetSubBatch;
+        ExecutorService executor = multiGetExecutor;
+        if (executor == null || subBatch <= 0 || sortedKey.length <= subBatch) {
+            copyValues(db.multiGetAsList(readOptions, listCf, listKey), rs, 0);
+            return rs;
+        }
+        final ReadOptions ro = readOptions;
+        List<Future<Void>> listFuture = new ArrayList<>();
+        try {
+            for (int from = 0; from < sortedKey.length; from += subBatch) {
+                final int start = from;
+                final int end = Math.min(from + subBatch, sortedKey.length);
+                listFuture.add(executor.submit(() -> {
+                    copyValues(db.multiGetAsList(ro, listCf.subList(start, end), listKey.subList(start, end)), rs, start);
+                    return null;
+                }));
+            }
+            for (Future<Void> f : listFuture) {
+                f.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RocksDBException("multiGet interrupted");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RocksDBException) {
+                throw (RocksDBException) ex.getCause();
+            }
+            throw new RocksDBException("multiGet: " + ex.getCause());
+        } finally {
+            for (Future<Void> f : listFuture) {
+                f.cancel(false);
+            }
+        }
+        return rs;
+    }
+
+    private static void copyValues(List<byte[]> values, byte[][] dest, int offset) {
+        for (int i = 0; i < values.size(); i++) {
+            dest[offset + i] = values.get(i);
+        }
+    }
+
     public void delete(String key) {
+        long start = startTimer();
         try {
             if (key != null && !key.isEmpty()) {
-                db.delete(bytes(key));
+                byte[] bk = bytes(key);
+                if (indexes.isActive()) {
+                    indexes.write(writeOptions, null, Collections.singletonList(bk));
+                } else {
+                    db.delete(writeOptions, bk);
+                }
+                invalidate(bk);
             }
         } catch (Exception ex) {
             logger.error("delete: ", ex);
+        } finally {
+            stopTimer(RDBMetrics.Op.DELETE, start);
         }
     }
 
     public void deleteList(List<String> listKey) throws RocksDBException {
         if (listKey != null && !listKey.isEmpty()) {
+            if (indexes.isActive()) {
+                writeIndexed(writeOptions, null, bytesList(listKey), RDBMetrics.Op.DELETE_BATCH);
+                return;
+            }
             for (String key : listKey) {
                 if (key != null && !key.isEmpty()) {
-                    db.delete(bytes(key));
+                    byte[] bk = bytes(key);
+                    db.delete(writeOptions, bk);
+                    invalidate(bk);
                 }
             }
         }
     }
 
     public void deleteBatch(List<String> listKey) throws IOException {
+        deleteBatch(listKey, writeOptions);
+    }
+
+    public void deleteBatch(List<String> listKey, WriteProfile profile) throws IOException {
+        deleteBatch(listKey, mapWriteOptions.get(profile));
+    }
+
+    private void deleteBatch(List<String> listKey, WriteOptions wo) throws IOException {
         if (listKey != null && !listKey.isEmpty()) {
+            if (indexes.isActive()) {
+                try {
+                    writeIndexed(wo, null, bytesList(listKey), RDBMetrics.Op.DELETE_BATCH);
+                } catch (Exception ex) {
+                    logger.error("deleteBatch: ", ex);
+                }
+                return;
+            }
+            long start = startTimer();
             WriteBatch batch = new WriteBatch();
             try {
                 for (String key : listKey) {
@@ -290,38 +1400,173 @@ public class RDBSingleConnection {
                         batch.delete(bytes(key));
                     }
                 }
-                db.write(new WriteOptions(), batch);
+                db.write(wo, batch);
+                invalidateKeys(listKey);
             } catch (Exception ex) {
                 logger.error("deleteBatch: ", ex);
             } finally {
                 // Make sure you close the batch to avoid resource leaks.
                 batch.close();
+                stopTimer(RDBMetrics.Op.DELETE_BATCH, start);
+                recordBatchSize(listKey.size());
             }
         }
     }
 
     public void deleteByte(byte[] key) {
+        deleteByte(key, writeOptions);
+    }
+
+    public void deleteByte(byte[] key, WriteProfile profile) {
+        deleteByte(key, mapWriteOptions.get(profile));
+    }
+
+    private void deleteByte(byte[] key, WriteOptions wo) {
         try {
-            if (key != null && key.length > 0) {
-                db.delete(key);
-            }
+            deleteByteChecked(key, wo);
         } catch (Exception ex) {
             logger.error("deleteByte: ", ex);
         }
     }
 
+    /**
+     * deleteByte that throws instead of logging, for RDBAsyncConnection.
+     * wo null means the default write profile.
+     */
+    void deleteByteChecked(byte[] key, WriteOptions wo) throws RocksDBException {
+        long start = startTimer();
+        try {
+            if (key != null && key.length > 0) {
+                if (indexes.isActive()) {
+                    indexes.write(wo != null ? wo : writeOptions, null, Collections.singletonList(key));
+                } else {
+                    db.delete(wo != null ? wo : writeOptions, key);
+                }
+                invalidate(key);
+            }
+        } finally {
+            stopTimer(RDBMetrics.Op.DELETE, start);
+        }
+    }
+
+    /**
+     * Atomic puts and deletes in one WriteBatch, deletes are applied after
+     * the puts. Unlike putBatchByte, errors are thrown.
+     */
+    public void writeBatch(Map<byte[], byte[]> puts, Collection<byte[]> deletes) throws RocksDBException {
+        int size = (puts != null ? puts.size() : 0) + (deletes != null ? deletes.size() : 0);
+        if (size == 0) {
+            return;
+        }
+        throttleBatch();
+        if (indexes.isActive()) {
+            writeIndexed(writeOptions, puts, deletes, RDBMetrics.Op.PUT_BATCH);
+            return;
+        }
+        long start = startTimer();
+        try (WriteBatch batch = new WriteBatch()) {
+            if (puts != null) {
+                for (Map.Entry<byte[], byte[]> e : puts.entrySet()) {
+                    byte[] key = e.getKey();
+                    byte[] value = e.getValue();
+                    if (key != null && key.length > 0 && value != null && value.length > 0) {
+                        batch.put(key, encodeValue(value));
+                    }
+                }
+            }
+            if (deletes != null) {
+                for (byte[] key : deletes) {
+                    if (key != null && key.length > 0) {
+                        batch.delete(key);
+                    }
+                }
+            }
+            db.write(writeOptions, batch);
+            if (puts != null) {
+                invalidateByteKeys(puts.keySet());
+            }
+            if (deletes != null) {
+                invalidateByteKeys(deletes);
+            }
+        } finally {
+            stopTimer(RDBMetrics.Op.PUT_BATCH, start);
+            recordBatchSize(size);
+        }
+    }
+
+    /**
+     * Write path used while an index is registered, see IndexManager.write.
+     */
+    private void writeIndexed(WriteOptions wo, Map<byte[], byte[]> puts, Collection<byte[]> deletes, RDBMetrics.Op op) throws RocksDBException {
+        long start = startTimer();
+        try {
+            indexes.write(wo, puts, deletes);
+            if (puts != null) {
+                invalidateByteKeys(puts.keySet());
+            }
+            if (deletes != null) {
+                invalidateByteKeys(deletes);
+            }
+        } finally {
+            stopTimer(op, start);
+            recordBatchSize((puts != null ? puts.size() : 0) + (deletes != null ? deletes.size() : 0));
+        }
+    }
+
+    private static Map<byte[], byte[]> bytesMap(Map<String, String> mapData) {
+        Map<byte[], byte[]> rs = new LinkedHashMap<>();
+        for (Map.Entry<String, String> e : mapData.entrySet()) {
+            if (e.getKey() != null && !e.getKey().isEmpty() && e.getValue() != null && !e.getValue().isEmpty()) {
+                rs.put(bytes(e.getKey()), bytes(e.getValue()));
+            }
+        }
+        return rs;
+    }
+
+    private static List<byte[]> bytesList(Collection<String> listKey) {
+        List<byte[]> rs = new ArrayList<>(listKey.size());
+        for (String key : listKey) {
+            if (key != null && !key.isEmpty()) {
+                rs.add(bytes(key));
+            }
+        }
+        return rs;
+    }
+
     public void deleteListByte(List<byte[]> listKey) throws RocksDBException {
         if (listKey != null && !listKey.isEmpty()) {
+            if (indexes.isActive()) {
+                writeIndexed(writeOptions, null, listKey, RDBMetrics.Op.DELETE_BATCH);
+                return;
+            }
             for (byte[] key : listKey) {
                 if (key != null && key.length > 0) {
-                    db.delete(key);
+                    db.delete(writeOptions, key);
+                    invalidate(key);
                 }
             }
         }
     }
 
     public void deleteBatchByte(List<byte[]> listKey) throws IOException {
+        deleteBatchByte(listKey, writeOptions);
+    }
+
+    public void deleteBatchByte(List<byte[]> listKey, WriteProfile profile) throws IOException {
+        deleteBatchByte(listKey, mapWriteOptions.get(profile));
+    }
+
+    private void deleteBatchByte(List<byte[]> listKey, WriteOptions wo) throws IOException {
         if (listKey != null && !listKey.isEmpty()) {
+            if (indexes.isActive()) {
+                try {
+                    writeIndexed(wo, null, listKey, RDBMetrics.Op.DELETE_BATCH);
+                } catch (Exception ex) {
+                    logger.error("deleteBatchByte: ", ex);
+                }
+                return;
+            }
+            long start = startTimer();
             WriteBatch batch = new WriteBatch();
             try {
                 for (byte[] key : listKey) {
@@ -329,35 +1574,868 @@ public class RDBSingleConnection {
                         batch.delete(key);
                     }
                 }
-                db.write(new WriteOptions(), batch);
+                db.write(wo, batch);
+                invalidateByteKeys(listKey);
             } catch (Exception ex) {
                 logger.error("deleteBatchByte: ", ex);
             } finally {
                 // Make sure you close the batch to avoid resource leaks.
                 batch.close();
+                stopTimer(RDBMetrics.Op.DELETE_BATCH, start);
+                recordBatchSize(listKey.size());
+            }
+        }
+    }
+    /**
+     * Delete every key in [from, to) with one range tombstone, null from or
+     * to means unbounded.
+     * A null to is resolved once, when the call starts, to the last key plus
+     * 0x00: keys written concurrently that sort after that last key survive.
+     */
+    public void deleteRange(byte[] from, byte[] to) throws RocksDBException {
+        deleteRange(defaultHandle, from, to, false);
+    }
+
+    /**
+     * Same as deleteRange(from, to), with reclaim the SST files fully inside
+     * the range are dropped and the rest is compacted so disk space is freed
+     * now instead of by later compactions. Dropping files is not consistent
+     * with open snapshots and iterators, reclaim is meant for purges.
+     */
+    public void deleteRange(byte[] from, byte[] to, boolean reclaim) throws RocksDBException {
+        deleteRange(defaultHandle, from, to, reclaim);
+    }
+
+    public void deletePrefix(byte[] prefix) throws RocksDBException {
+        deletePrefix(prefix, false);
+    }
+
+    /**
+     * Delete every key starting with prefix, see deleteRange(from, to, reclaim).
+     */
+    public void deletePrefix(byte[] prefix, boolean reclaim) throws RocksDBException {
+        if (prefix != null && prefix.length > 0) {
+            deleteRange(defaultHandle, prefix, BytesUtil.prefixEnd(prefix), reclaim);
+        }
+    }
+
+    public void deletePrefix(String prefix) throws RocksDBException {
+        if (prefix != null && !prefix.isEmpty()) {
+            deletePrefix(bytes(prefix), false);
+        }
+    }
+
+    void deleteRange(ColumnFamilyHandle cf, byte[] from, byte[] to, boolean reclaim) throws RocksDBException {
+        byte[] begin = from != null ? from : new byte[0];
+        byte[] end = to != null ? to : lastKeySuccessor(cf);
+        if (end == null || BytesUtil.compare(begin, end) >= 0) {
+            return;
+        }
+        long start = startTimer();
+        try {
+            if (cf == defaultHandle && indexes.isActive()) {
+                deleteRangeIndexed(begin, end);
+            } else {
+                db.deleteRange(cf, writeOptions, begin, end);
+            }
+            if (reclaim) {
+                db.deleteFilesInRanges(cf, Arrays.asList(begin, end), false);
+                db.compactRange(cf, begin, end);
+            }
+        } finally {
+            stopTimer(RDBMetrics.Op.DELETE_RANGE, start);
+            // also after a failure, an indexed delete may have removed part of the range
+            if (cf == defaultHandle && hotKeyCache != null) {
+                hotKeyCache.invalidateAll();
+            }
+        }
+    }
+
+    /**
+     * deleteRange of the default keyspace while an index is registered: the
+     * keys are deleted in batches through the index write path so their index
+     * entries go with them. Unlike a range tombstone it is not atomic, keys
+     * written into the range meanwhile may survive.
+     */
+    private void deleteRangeIndexed(byte[] begin, byte[] end) throws RocksDBException {
+        List<byte[]> keys = new ArrayList<>();
+        try (RocksIterator it = db.newIterator(defaultHandle, readOptions)) {
+            for (it.seek(begin); it.isValid() && BytesUtil.compare(it.key(), end) < 0; it.next()) {
+                keys.add(it.key());
+                if (keys.size() == INDEXED_DELETE_BATCH) {
+                    indexes.write(writeOptions, null, keys);
+                    keys = new ArrayList<>();
+                }
+            }
+        }
+        if (!keys.isEmpty()) {
+            indexes.write(writeOptions, null, keys);
+        }
+    }
+
+    /**
+     * Smallest key after the last key of cf (the last key plus 0x00), null
+     * when cf is empty. Only past the end as of now, see deleteRange.
+     */
+    private byte[] lastKeySuccessor(ColumnFamilyHandle cf) {
+        try (RocksIterator it = db.newIterator(cf)) {
+            it.seekToLast();
+            if (!it.isValid()) {
+                return null;
+            }
+            byte[] last = it.key();
+            return Arrays.copyOf(last, last.length + 1);
+        }
+    }
+
+    /**
+     * Manual compaction of [from, to) in the default column family, null
+     * bounds mean the start or end of the keyspace. Runs alongside automatic
+     * compactions and uses the subcompactions of RDBConfig.setCompaction.
+     */
+    public void compactRange(byte[] from, byte[] to) throws RocksDBException {
+        compactRange(defaultHandle, from, to);
+    }
+
+    /**
+     * Compact every column family, data, namespaces and indexes.
+     * The default column family is compacted in chunks of about equal size.
+     */
+    public void compactAll() throws RocksDBException {
+        compactAll(() -> false);
+    }
+
+    /**
+     * compactAll that gives up between chunks once stopped returns true.
+     */
+    void compactAll(BooleanSupplier stopped) throws RocksDBException {
+        List<byte[]> splits = splitKeys(COMPACT_ALL_CHUNKS);
+        for (int i = 0; i <= splits.size() && !stopped.getAsBoolean(); i++) {
+            compactRange(defaultHandle, i > 0 ? splits.get(i - 1) : null, i < splits.size() ? splits.get(i) : null);
+        }
+        for (Namespace ns : mapNamespace.values()) {
+            if (stopped.getAsBoolean()) {
+                return;
+            }
+            compactRange(ns.getHandle(), null, null);
+        }
+        if (indexes.getHandle() != null && !stopped.getAsBoolean()) {
+            compactRange(indexes.getHandle(), null, null);
+        }
+    }
+
+    private void compactRange(ColumnFamilyHandle cf, byte[] from, byte[] to) throws RocksDBException {
+        CompactionConfig cc = config.getCompaction();
+        try (CompactRangeOptions cro = new CompactRangeOptions().setExclusiveManualCompaction(false)) {
+            if (cc != null) {
+                cro.setMaxSubcompactions(cc.getMaxSubcompactions());
+            }
+            db.compactRange(cf, from, to, cro);
+        }
+    }
+
+    /**
+     * True while compaction debt or L0 files are close to the RocksDB
+     * slowdown limits, writers should slow down before RocksDB stalls them.
+     * Sampled every CompactionConfig check interval, false without
+     * RDBConfig.setCompaction.
+     */
+    public boolean isWriteBackpressure() {
+        CompactionController cc = compaction;
+        return cc != null && cc.isBackpressure();
+    }
+
+    /**
+     * Wait at most timeoutMillis for the backpressure to clear, returns
+     * false when it is still on.
+     */
+    public boolean awaitBackpressure(long timeoutMillis) throws InterruptedException {
+        CompactionController cc = compaction;
+        return cc == null || cc.await(timeoutMillis);
+    }
+
+    /**
+     * Largest estimated compaction debt over all column families.
+     */
+    public long getPendingCompactionBytes() {
+        return maxLongProperty("rocksdb.estimate-pending-compaction-bytes");
+    }
+
+    /**
+     * Largest value of an integer property over all column families, -1 when unavailable.
+     */
+    long maxLongProperty(String name) {
+        List<ColumnFamilyHandle> handles = new ArrayList<>();
+        handles.add(defaultHandle);
+        for (Namespace ns : mapNamespace.values()) {
+            handles.add(ns.getHandle());
+        }
+        if (indexes.getHandle() != null) {
+            handles.add(indexes.getHandle());
+        }
+        long rs = -1L;
+        for (ColumnFamilyHandle cf : handles) {
+            try {
+                String value = db.getProperty(cf, name);
+                if (value != null && !value.isEmpty()) {
+                    rs = Math.max(rs, Long.parseLong(value.trim()));
+                }
+            } catch (Exception ex) {
+                logger.debug("maxLongProperty " + name + ": ", ex);
+            }
+        }
+        return rs;
+    }
+
+    /**
+     * Batch writes wait for the compaction backpressure up to
+     * CompactionConfig.getBackpressureWaitMillis, then write anyway.
+     */
+    private void throttleBatch() {
+        CompactionController cc = compaction;
+        if (cc == null || !cc.isBackpressure()) {
+            return;
+        }
+        long wait = config.getCompaction().getBackpressureWaitMillis();
+        if (wait > 0) {
+            try {
+                if (!cc.await(wait)) {
+                    logger.warn("Write backpressure still on after " + wait + " ms, pending compaction bytes " + cc.getPendingCompactionBytes());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
             }
         }
     }
+
     
-    synchronized public int incInt(String key, int value) throws RocksDBException {
+    public int incInt(String key, int value) throws RocksDBException {
         int rs = 0;
         if (key != null && !key.isEmpty()) {
             byte[] bk = nrs.serializeString(key);
-            byte[] bv = db.get(bk);
-            rs = bv != null ? nrs.deserializeInt(bv) + value : value;
-            db.put(bk, nrs.serializeInt(rs));
+            long start = startTimer();
+            Lock lock = locks.get(bk);
+            lock.lock();
+            try {
+                byte[] bv = decodeValue(db.get(readOptions, bk));
+                rs = bv != null ? nrs.deserializeInt(bv) + value : value;
+                writeLocked(bk, nrs.serializeInt(rs));
+                invalidate(bk);
+            } finally {
+                lock.unlock();
+                stopTimer(RDBMetrics.Op.INCREMENT, start);
+            }
         }
         return rs;
     }
     
-    synchronized public long incLong(String key, long value) throws RocksDBException {
+    public long incLong(String key, long value) throws RocksDBException {
         long rs = 0L;
         if (key != null && !key.isEmpty()) {
             byte[] bk = nrs.serializeString(key);
-            byte[] bv = db.get(bk);
-            rs = bv != null ? nrs.deserializeLong(bv) + value : value;
-            db.put(bk, nrs.serializeLong(rs));
+            long start = startTimer();
+            Lock lock = locks.get(bk);
+            lock.lock();
+            try {
+                byte[] bv = decodeValue(db.get(readOptions, bk));
+                rs = bv != null ? nrs.deserializeLong(bv) + value : value;
+                writeLocked(bk, nrs.serializeLong(rs));
+                invalidate(bk);
+            } finally {
+                lock.unlock();
+                stopTimer(RDBMetrics.Op.INCREMENT, start);
+            }
+        }
+        return rs;
+    }
+
+    /**
+     * Atomic read-modify-write of one key.
+     * fn gets the current value (null if absent) and returns the new value,
+     * null deletes the key. Returns the new value.
+     * Keys are serialized by a striped lock, or by optimistic transactions
+     * with retry when RDBConfig.setOptimisticTransaction(true).
+     * fn may run more than once in optimistic mode and must not have side effects.
+     */
+    public byte[] update(byte[] key, UnaryOperator<byte[]> fn) throws RocksDBException {
+        if (key == null || key.length == 0) {
+            return null;
+        }
+        long start = startTimer();
+        if (txnDb != null && !indexes.isActive()) {
+            try {
+                return updateOptimistic(key, fn);
+            } finally {
+                stopTimer(RDBMetrics.Op.UPDATE, start);
+            }
+        }
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            byte[] newValue = fn.apply(decodeValue(db.get(readOptions, key)));
+            writeLocked(key, newValue);
+            invalidate(key);
+            return newValue;
+        } finally {
+            lock.unlock();
+            stopTimer(RDBMetrics.Op.UPDATE, start);
+        }
+    }
+
+    /**
+     * Set key to newValue only if the current value equals expected.
+     * expected null means the key must be absent, newValue null deletes the key.
+     */
+    public boolean compareAndSet(byte[] key, final byte[] expected, final byte[] newValue) throws RocksDBException {
+        if (key == null || key.length == 0) {
+            return false;
+        }
+        long start = startTimer();
+        if (txnDb != null && !indexes.isActive()) {
+            final boolean[] matched = new boolean[1];
+            try {
+                updateOptimistic(key, (current) -> {
+                    matched[0] = Arrays.equals(current, expected);
+                    return matched[0] ? newValue : current;
+                });
+            } finally {
+                stopTimer(RDBMetrics.Op.UPDATE, start);
+            }
+            return matched[0];
+        }
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            if (!Arrays.equals(decodeValue(db.get(readOptions, key)), expected)) {
+                return false;
+            }
+            writeLocked(key, newValue);
+            invalidate(key);
+            return true;
+        } finally {
+            lock.unlock();
+            stopTimer(RDBMetrics.Op.UPDATE, start);
+        }
+    }
+
+    /**
+     * Put or delete (value null) while holding the key stripe lock, the index
+     * write path takes the same reentrant lock again.
+     */
+    private void writeLocked(byte[] key, byte[] value) throws RocksDBException {
+        if (indexes.isActive()) {
+            indexes.write(writeOptions, value != null ? Collections.singletonMap(key, value) : null,
+                    value == null ? Collections.singletonList(key) : null);
+        } else if (value != null) {
+            db.put(writeOptions, key, encodeValue(value));
+        } else {
+            db.delete(writeOptions, key);
+        }
+    }
+
+    private byte[] updateOptimistic(byte[] key, UnaryOperator<byte[]> fn) throws RocksDBException {
+        for (int attempt = 0; ; attempt++) {
+            try (Transaction txn = txnDb.beginTransaction(writeOptions)) {
+                byte[] current = decodeValue(txn.getForUpdate(readOptions, key, true));
+                byte[] newValue = fn.apply(current);
+                if (newValue != current) {
+                    if (newValue != null) {
+                        txn.put(key, encodeValue(newValue));
+                    } else {
+                        txn.delete(key);
+                    }
+                }
+                txn.commit();
+                invalidate(key);
+                return newValue;
+            } catch (RocksDBException ex) {
+                if (attempt >= config.getMaxConflictRetries() || !isConflict(ex)) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private static boolean isConflict(RocksDBException ex) {
+        Status status = ex.getStatus();
+        return status != null && (status.getCode() == Status.Code.Busy || status.getCode() == Status.Code.TryAgain);
+    }
+
+    /**
+     * Put with a per-write time to live, TTL mode (RDBConfig.setTtlSeconds) only.
+     * The value is stored with a TtlValue header that every read path strips:
+     * get/getByte, getList, getTtl and scans hide the entry once ttlSeconds
+     * have passed, compaction drops it once older than the database TTL, so
+     * ttlSeconds may not exceed it. Rejected while an index is registered.
+     */
+    public void putTtl(byte[] key, byte[] value, int ttlSeconds) throws RocksDBException {
+        if (!ttlMode()) {
+            throw new IllegalStateException("putTtl requires RDBConfig.setTtlSeconds");
+        }
+        if (ttlSeconds > config.getTtlSeconds()) {
+            // TtlDB compaction would drop the entry before its own expiry
+            throw new IllegalArgumentException("ttlSeconds " + ttlSeconds + " exceeds the database TTL " + config.getTtlSeconds());
+        }
+        checkNoIndexes("putTtl");
+        if (key != null && key.length > 0 && value != null) {
+            long start = startTimer();
+            try {
+                byte[] encoded = valueCodec != null ? valueCodec.encode(value) : value;
+                db.put(writeOptions, key, TtlValue.wrap(encoded, ttlSeconds, System.currentTimeMillis()));
+                invalidate(key);
+            } finally {
+                stopTimer(RDBMetrics.Op.PUT, start);
+            }
+        }
+    }
+
+    public void putTtl(String key, String value, int ttlSeconds) throws RocksDBException {
+        if (key != null && !key.isEmpty() && value != null) {
+            putTtl(bytes(key), bytes(value), ttlSeconds);
+        }
+    }
+
+    /**
+     * Value written by put or putTtl, null when absent or expired.
+     * Like getByte but throws instead of logging.
+     */
+    public byte[] getTtl(byte[] key) throws RocksDBException {
+        if (key == null || key.length == 0) {
+            return null;
+        }
+        long start = startTimer();
+        try {
+            return decodeValue(db.get(readOptions, key));
+        } finally {
+            stopTimer(RDBMetrics.Op.GET, start);
+        }
+    }
+
+    public String getTtl(String key) throws RocksDBException {
+        if (key != null && !key.isEmpty()) {
+            byte[] bv = getTtl(bytes(key));
+            return bv != null ? nrs.deserializeString(bv) : null;
+        }
+        return null;
+    }
+
+    /**
+     * Lock-free counter increment, a single blind merge with the uint64add operator.
+     * Counter values are little-endian fixed64 and only readable with getCounter,
+     * do not mix them with incInt/incLong on the same key.
+     * Use incLong when the new value is needed. Blind merges can not update
+     * indexes, counters are rejected while an index is registered.
+     */
+    public void addCounter(String key, long delta) throws RocksDBException {
+        if (key != null && !key.isEmpty()) {
+            addCounterByte(bytes(key), delta);
+        }
+    }
+
+    public void addCounterByte(byte[] key, long delta) throws RocksDBException {
+        checkNoIndexes("addCounter");
+        if (key != null && key.length > 0) {
+            byte[] bv = new byte[8];
+            Codecs.writeLongLE(delta, bv, 0);
+            long start = startTimer();
+            db.merge(writeOptions, key, bv);
+            stopTimer(RDBMetrics.Op.MERGE, start);
+            invalidate(key);
+        }
+    }
+
+    public void addCounterBatch(Map<String, Long> mapDelta) throws RocksDBException {
+        checkNoIndexes("addCounterBatch");
+        if (mapDelta != null && !mapDelta.isEmpty()) {
+            try (WriteBatch batch = new WriteBatch()) {
+                byte[] bv = new byte[8];
+                for (Map.Entry<String, Long> e : mapDelta.entrySet()) {
+                    String key = e.getKey();
+                    if (key != null && !key.isEmpty() && e.getValue() != null) {
+                        // WriteBatch copies the operand, the array can be reused.
+                        Codecs.writeLongLE(e.getValue(), bv, 0);
+                        batch.merge(bytes(key), bv);
+                    }
+                }
+                long start = startTimer();
+                db.write(writeOptions, batch);
+                stopTimer(RDBMetrics.Op.MERGE, start);
+                recordBatchSize(mapDelta.size());
+            }
+            invalidateKeys(mapDelta.keySet());
+        }
+    }
+
+    /**
+     * Current value of a counter written with addCounter, 0 if absent.
+     * The read resolves all pending merge operands.
+     */
+    public long getCounter(String key) throws RocksDBException {
+        if (key != null && !key.isEmpty()) {
+            return getCounterByte(bytes(key));
+        }
+        return 0L;
+    }
+
+    public long getCounterByte(byte[] key) throws RocksDBException {
+        if (key != null && key.length > 0) {
+            byte[] bv = db.get(readOptions, key);
+            if (bv != null && bv.length >= 8) {
+                return Codecs.readLongLE(bv, 0);
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Maintain def on every put/delete/batch of the default keyspace from now on,
+     * building it on parallelism threads first if it was never built. Writers
+     * are not stopped during the build. Register indexes again after each open.
+     * While an index is registered, writes read the old values under the key
+     * locks and commit data and index entries in one WriteBatch.
+     * AsyncWriter writes, putTtl, addCounter and BulkLoader can not maintain
+     * indexes and are rejected with IllegalStateException while one is
+     * registered. Writes they queued or made before, and optimistic
+     * transactions, bypass indexes: lookups skip entries that no longer
+     * match, call rebuildIndex to add the missing ones.
+     */
+    public void registerIndex(IndexDefinition def, int parallelism) throws RocksDBException {
+        lockInstance.lock();
+        try {
+            if (indexes.getHandle() == null) {
+                ColumnFamilyDescriptor desc = new ColumnFamilyDescriptor(INDEX_COLUMN_FAMILY.getBytes(StandardCharsets.UTF_8), newColumnFamilyOptions(null));
+                indexes.setHandle(ttlDb != null ? ttlDb.createColumnFamilyWithTtl(desc, config.getTtlSeconds()) : db.createColumnFamily(desc));
+            }
+        } finally {
+            lockInstance.unlock();
+        }
+        indexes.register(def, parallelism);
+    }
+
+    public void registerIndex(IndexDefinition def) throws RocksDBException {
+        registerIndex(def, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Stop maintaining the index and delete its entries.
+     */
+    public void dropIndex(String name) throws RocksDBException {
+        lockInstance.lock();
+        try {
+            if (indexes.getHandle() != null) {
+                indexes.drop(name);
+            }
+        } finally {
+            lockInstance.unlock();
+        }
+    }
+
+    /**
+     * Rebuild a registered index online, returns the number of entries indexed.
+     */
+    public long rebuildIndex(String name, int parallelism) throws RocksDBException {
+        return indexes.rebuild(requireIndex(name), parallelism);
+    }
+
+    /**
+     * Entries whose value maps to indexKey in the named index, in key order, at most limit.
+     */
+    public List<KV> lookupIndex(String name, byte[] indexKey, int limit) throws RocksDBException {
+        if (indexKey == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        return indexes.lookup(requireIndex(name), indexKey, limit);
+    }
+
+    public Map<String, String> lookupIndex(String name, String indexKey, int limit) throws RocksDBException {
+        Map<String, String> rs = new LinkedHashMap<>();
+        if (indexKey != null) {
+            for (KV kv : lookupIndex(name, bytes(indexKey), limit)) {
+                rs.put(nrs.deserializeString(kv.getKey()), nrs.deserializeString(kv.getValue()));
+            }
+        }
+        return rs;
+    }
+
+    private IndexDefinition requireIndex(String name) {
+        IndexDefinition def = name != null ? indexes.get(name) : null;
+        if (def == null) {
+            throw new IllegalArgumentException("Index is not registered: " + name);
+        }
+        return def;
+    }
+
+    /**
+     * Run fn against a consistent snapshot of the database, all reads of the
+     * SnapshotView see the same point in time. The snapshot is released when
+     * fn returns, do not keep the view or its iterators.
+     */
+    public <T> T withSnapshot(Function<SnapshotView, T> fn) {
+        Snapshot snapshot = db.getSnapshot();
+        try (ReadOptions ro = newReadOptions(ReadProfile.DEFAULT, snapshot)) {
+            return fn.apply(new SnapshotView(this, db, snapshot, ro));
+        } finally {
+            db.releaseSnapshot(snapshot);
+        }
+    }
+
+    /**
+     * Open a consistent, openable copy of the database at path (which must not
+     * exist). SST files are hard-linked when path is on the same filesystem,
+     * so a checkpoint costs almost no extra disk.
+     */
+    public void createCheckpoint(String path) throws RocksDBException {
+        try (Checkpoint checkpoint = Checkpoint.create(db)) {
+            checkpoint.createCheckpoint(path);
+        }
+    }
+
+    /**
+     * Incremental hot backup into backupDir: SST files already backed up are
+     * shared, only new ones are copied, at most rateLimitBytesPerSec
+     * (0 for unlimited). Keeps the newest numBackupsToKeep backups (0 keeps all).
+     * Returns the id of the new backup.
+     */
+    public int createBackup(String backupDir, long rateLimitBytesPerSec, int numBackupsToKeep) throws RocksDBException {
+        try {
+            // BackupableDBOptions rejects a directory that does not exist yet
+            Files.createDirectories(Paths.get(backupDir));
+        } catch (IOException ex) {
+            throw new RocksDBException("createBackup: " + ex);
+        }
+        try (BackupableDBOptions bo = newBackupableDBOptions(backupDir, rateLimitBytesPerSec);
+                BackupEngine engine = BackupEngine.open(Env.getDefault(), bo)) {
+            // flush so the backup does not depend on the WAL
+            engine.createNewBackup(db, true);
+            if (numBackupsToKeep > 0) {
+                engine.purgeOldBackups(numBackupsToKeep);
+            }
+            List<BackupInfo> infos = engine.getBackupInfo();
+            int id = 0;
+            for (BackupInfo info : infos) {
+                id = Math.max(id, info.backupId());
+            }
+            return id;
+        }
+    }
+
+    public static List<BackupInfo> getBackupInfo(String backupDir) throws RocksDBException {
+        try (BackupableDBOptions bo = newBackupableDBOptions(backupDir, 0);
+                BackupEngine engine = BackupEngine.open(Env.getDefault(), bo)) {
+            return engine.getBackupInfo();
+        }
+    }
+
+    /**
+     * Restore the latest backup into dbDir, the database must not be open.
+     */
+    public static void restoreLatestBackup(String backupDir, String dbDir, long rateLimitBytesPerSec) throws RocksDBException {
+        try (BackupableDBOptions bo = newBackupableDBOptions(backupDir, 0).setRestoreRateLimit(rateLimitBytesPerSec);
+                BackupEngine engine = BackupEngine.open(Env.getDefault(), bo);
+                RestoreOptions ro = new RestoreOptions(false)) {
+            engine.restoreDbFromLatestBackup(dbDir, dbDir, ro);
+        }
+    }
+
+    private static BackupableDBOptions newBackupableDBOptions(String backupDir, long rateLimitBytesPerSec) {
+        BackupableDBOptions bo = new BackupableDBOptions(backupDir).setShareTableFiles(true).setSync(true);
+        if (rateLimitBytesPerSec > 0) {
+            bo.setBackupRateLimit(rateLimitBytesPerSec);
+        }
+        return bo;
+    }
+
+    /**
+     * Forward scan of [from, to), null from or to means unbounded.
+     * The iterator must be closed unless it is consumed to the end.
+     */
+    public RDBIterator scan(byte[] from, byte[] to) {
+        return newIterator(from, to, false, null, ReadProfile.SCAN);
+    }
+
+    /**
+     * Scan of [from, to) from the last key down to from.
+     */
+    public RDBIterator scanReverse(byte[] from, byte[] to) {
+        return newIterator(from, to, true, null, ReadProfile.SCAN);
+    }
+
+    /**
+     * Forward scan of all keys starting with prefix.
+     */
+    public RDBIterator scanPrefix(byte[] prefix) {
+        return scanPrefix(prefix, false);
+    }
+
+    /**
+     * prefixSameAsStart lets RocksDB use prefix bloom filters, only set it when
+     * prefix is exactly what the configured prefix extractor returns.
+     */
+    public RDBIterator scanPrefix(byte[] prefix, boolean prefixSameAsStart) {
+        ReadOptions ro = newReadOptions(ReadProfile.SCAN, null);
+        if (prefixSameAsStart) {
+            ro.setPrefixSameAsStart(true);
+        }
+        RDBIterator it = new RDBIterator(db, defaultHandle, ro, prefix, BytesUtil.prefixEnd(prefix), false);
+        return transformsValues() ? it.decodeWith(this::decodeValue) : it;
+    }
+
+    /**
+     * A null or empty prefix scans every key, like scan(null, null).
+     */
+    public RDBIterator scanPrefix(String prefix) {
+        return scanPrefix(prefix != null ? bytes(prefix) : null);
+    }
+
+    /**
+     * One page of at most limit entries of [from, to).
+     * pageToken is null for the first page, then ScanPage.getNextToken().
+     */
+    public ScanPage scanPage(byte[] from, byte[] to, byte[] pageToken, int limit, boolean reverse) {
+        List<KV> items = new ArrayList<>(Math.min(Math.max(limit, 0), 1024));
+        try (RDBIterator it = newIterator(from, to, reverse, null, ReadProfile.SCAN)) {
+            if (pageToken != null) {
+                it.skipPast(pageToken);
+            }
+            while (items.size() < limit && it.hasNext()) {
+                items.add(it.next());
+            }
+            byte[] nextToken = !items.isEmpty() && it.hasNext() ? items.get(items.size() - 1).getKey() : null;
+            return new ScanPage(items, nextToken);
+        }
+    }
+
+    RDBIterator newIterator(byte[] from, byte[] to, boolean reverse, Snapshot snapshot, ReadProfile profile) {
+        return newIterator(defaultHandle, from, to, reverse, snapshot, profile);
+    }
+
+    RDBIterator newIterator(ColumnFamilyHandle cf, byte[] from, byte[] to, boolean reverse, Snapshot snapshot, ReadProfile profile) {
+        RDBIterator it = new RDBIterator(db, cf, newReadOptions(profile, snapshot), from, to, reverse);
+        return cf == defaultHandle && transformsValues() ? it.decodeWith(this::decodeValue) : it;
+    }
+
+    /**
+     * Split keys that cut the keyspace into at most n ranges of about the same
+     * size, from SST file boundaries weighted by file size.
+     * Ranges are [null, k0), [k0, k1) ... [kLast, null).
+     */
+    public List<byte[]> splitKeys(int n) {
+        List<byte[]> rs = new ArrayList<>();
+        if (n <= 1) {
+            return rs;
+        }
+        List<LiveFileMetaData> files = new ArrayList<>();
+        long total = 0;
+        for (LiveFileMetaData f : db.getLiveFilesMetaData()) {
+            if (Arrays.equals(f.columnFamilyName(), RocksDB.DEFAULT_COLUMN_FAMILY)) {
+                files.add(f);
+                total += f.size();
+            }
+        }
+        if (files.isEmpty() || total == 0) {
+            return rs;
+        }
+        files.sort((a, b) -> BytesUtil.compare(a.smallestKey(), b.smallestKey()));
+        long acc = 0;
+        int next = 1;
+        for (LiveFileMetaData f : files) {
+            // Cut at the start of the file that crosses the next size target.
+            if (acc >= total * next / n) {
+                byte[] key = f.smallestKey();
+                if (rs.isEmpty() || BytesUtil.compare(rs.get(rs.size() - 1), key) < 0) {
+                    rs.add(key);
+                }
+                while (next < n && acc >= total * next / n) {
+                    next++;
+                }
+                if (next >= n) {
+                    break;
+                }
+            }
+            acc += f.size();
         }
         return rs;
     }
+
+    /**
+     * Scan the whole database on parallelism threads, each range with its own
+     * bounded iterator on one shared snapshot, so the output is consistent.
+     * consumer is called concurrently from several threads, in key order only
+     * within a range. Returns the number of entries visited.
+     */
+    public long parallelScan(int parallelism, final Consumer<KV> consumer) throws RocksDBException {
+        return parallelForEachRange(parallelism, (it) -> {
+            long n = 0;
+            while (it.hasNext()) {
+                consumer.accept(it.next());
+                n++;
+            }
+            return n;
+        });
+    }
+
+    interface RangeTask {
+
+        /**
+         * Consume the range iterator, returns the number of entries handled.
+         */
+        long run(RDBIterator it) throws RocksDBException;
+    }
+
+    /**
+     * Run task once per range of splitKeys(parallelism * 4) on parallelism
+     * threads, every range iterator reads the same snapshot. Returns the sum
+     * of the task results.
+     * Each task closes its own iterator. After a failure the ranges not yet
+     * started are skipped, and the snapshot is only released once every
+     * running task has returned; a task still running after
+     * PARALLEL_SCAN_AWAIT_SECONDS keeps it until close().
+     */
+    long parallelForEachRange(int parallelism, final RangeTask task) throws RocksDBException {
+        List<byte[]> splits = splitKeys(parallelism * 4);
+        final Snapshot snapshot = db.getSnapshot();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        final AtomicLong count = new AtomicLong();
+        final AtomicBoolean stopped = new AtomicBoolean();
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int i = 0; i <= splits.size(); i++) {
+                final byte[] from = i > 0 ? splits.get(i - 1) : null;
+                final byte[] to = i < splits.size() ? splits.get(i) : null;
+                tasks.add(pool.submit(() -> {
+                    if (stopped.get()) {
+                        return null;
+                    }
+                    try (RDBIterator it = newIterator(from, to, false, snapshot, ReadProfile.SCAN)) {
+                        count.addAndGet(task.run(it));
+                    }
+                    return null;
+                }));
+            }
+            for (ForkJoinTask<?> t : tasks) {
+                t.join();
+            }
+        } catch (RuntimeException ex) {
+            if (ex.getCause() instanceof RocksDBException) {
+                throw (RocksDBException) ex.getCause();
+            }
+            throw new RocksDBException("parallelScan: " + ex);
+        } finally {
+            stopped.set(true);
+            pool.shutdownNow();
+            boolean terminated = false;
+            try {
+                terminated = pool.awaitTermination(PARALLEL_SCAN_AWAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (terminated) {
+                db.releaseSnapshot(snapshot);
+            } else {
+                // an iterator may still read it, the snapshot goes with the db
+                logger.warn("parallelScan: range tasks still running, snapshot kept until close");
+            }
+        }
+        return count.get();
+    }
 }
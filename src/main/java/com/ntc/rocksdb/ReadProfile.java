@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import org.rocksdb.ReadOptions;
+
+/**
+ * Read profiles, RDBSingleConnection keeps one ReadOptions per profile.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public enum ReadProfile {
+    DEFAULT,
+    /**
+     * Bulk reads: blocks are not inserted into the block cache so a scan
+     * does not evict the hot set, with 2MB readahead for iterators.
+     */
+    SCAN,
+    /**
+     * Skip block checksum verification, for latency sensitive point reads.
+     */
+    NO_VERIFY;
+
+    public static final long SCAN_READAHEAD_SIZE = 2L << 20;
+
+    public ReadOptions newReadOptions() {
+        ReadOptions ro = new ReadOptions();
+        switch (this) {
+            case SCAN:
+                ro.setFillCache(false);
+                ro.setReadaheadSize(SCAN_READAHEAD_SIZE);
+                break;
+            case NO_VERIFY:
+                ro.setVerifyChecksums(false);
+                break;
+            default:
+                break;
+        }
+        return ro;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.List;
+
+/**
+ * One page of a paginated scan. Pass nextToken back to scanPage to
+ * resume after the last returned key, it is null on the last page.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public final class ScanPage {
+
+    private final List<KV> items;
+    private final byte[] nextToken;
+
+    public ScanPage(List<KV> items, byte[] nextToken) {
+        this.items = items;
+        this.nextToken = nextToken;
+    }
+
+    public List<KV> getItems() {
+        return items;
+    }
+
+    public byte[] getNextToken() {
+        return nextToken;
+    }
+
+    public boolean hasMore() {
+        return nextToken != null;
+    }
+}
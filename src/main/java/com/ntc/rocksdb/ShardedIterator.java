@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * K-way merge of per-shard RDBIterators into one iterator in key order
+ * (descending when reverse). Shards hold disjoint keys so no key is
+ * returned twice. Closing it closes every shard iterator.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class ShardedIterator implements Iterator<KV>, AutoCloseable {
+
+    private final List<RDBIterator> iterators;
+    private final PriorityQueue<Head> heads;
+    private boolean closed;
+
+    private static final class Head {
+        private final RDBIterator it;
+        private KV kv;
+
+        private Head(RDBIterator it) {
+            this.it = it;
+        }
+    }
+
+    ShardedIterator(List<RDBIterator> iterators, boolean reverse) {
+        this.iterators = iterators;
+        Comparator<Head> cmp = (a, b) -> BytesUtil.compare(a.kv.getKey(), b.kv.getKey());
+        heads = new PriorityQueue<>(Math.max(iterators.size(), 1), reverse ? cmp.reversed() : cmp);
+        for (RDBIterator it : iterators) {
+            Head head = new Head(it);
+            if (it.hasNext()) {
+                head.kv = it.next();
+                heads.add(head);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (heads.isEmpty()) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public KV next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Head head = heads.poll();
+        KV kv = head.kv;
+        if (head.it.hasNext()) {
+            head.kv = head.it.next();
+            heads.add(head);
+        }
+        return kv;
+    }
+
+    /**
+     * Sequential ordered stream, close it (try-with-resources) when not consumed to the end.
+     */
+    public Stream<KV> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        heads.clear();
+        for (RDBIterator it : iterators) {
+            it.close();
+        }
+    }
+}
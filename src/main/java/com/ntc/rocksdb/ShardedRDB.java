@@ -0,0 +1,430 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import org.rocksdb.RocksDBException;
+import static org.rocksdb.util.ByteUtil.bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hash partitions keys across several RDBSingleConnection instances, one per
+ * directory, so each shard has its own WAL, memtables and background threads
+ * and write throughput scales with the number of devices.
+ * Multi-key calls are split per shard and run in parallel, scans are merged
+ * across shards in key order. Batches are atomic within a shard only.
+ * The shard of a key depends on the number of shards, which is recorded in a
+ * SHARD file in every directory and checked on open.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class ShardedRDB {
+    private final Logger logger = LoggerFactory.getLogger(ShardedRDB.class);
+    public static final String SHARD_FILE = "SHARD";
+
+    private final List<RDBSingleConnection> shards;
+    private final NRSerializer nrs = new NRSerializer();
+    private final ExecutorService executor;
+
+    public ShardedRDB(List<String> shardPaths) throws RocksDBException {
+        this(shardPaths, (i) -> new RDBConfig());
+    }
+
+    /**
+     * @param shardPaths one directory per shard, ideally on separate devices, order matters
+     * @param configFactory RDBConfig of shard i, each shard needs its own Options instance
+     */
+    public ShardedRDB(List<String> shardPaths, IntFunction<RDBConfig> configFactory) throws RocksDBException {
+        if (shardPaths == null || shardPaths.isEmpty()) {
+            throw new IllegalArgumentException("ShardedRDB needs at least one shard path");
+        }
+        int n = shardPaths.size();
+        shards = new ArrayList<>(n);
+        try {
+            for (int i = 0; i < n; i++) {
+                checkShardFile(shardPaths.get(i), i, n);
+                shards.add(RDBSingleConnection.acquireShared(shardPaths.get(i), configFactory.apply(i)));
+            }
+        } catch (RocksDBException | RuntimeException | Error ex) {
+            // other holders of the same directory keep their connection
+            for (RDBSingleConnection shard : shards) {
+                shard.releaseShared();
+            }
+            throw ex;
+        }
+        executor = newExecutor(n);
+    }
+
+    private static void checkShardFile(String path, int index, int count) {
+        String expected = index + "/" + count;
+        File dir = new File(path);
+        File file = new File(dir, SHARD_FILE);
+        try {
+            if (file.exists()) {
+                String actual = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+                if (!actual.equals(expected)) {
+                    throw new IllegalStateException("Shard layout mismatch for " + path + ": found " + actual + ", expected " + expected);
+                }
+            } else {
+                if (!dir.exists() && !dir.mkdirs()) {
+                    throw new ExceptionInInitializerError("Path directory database can not created for: " + path);
+                }
+                Files.write(file.toPath(), expected.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Can not check shard file of " + path, ex);
+        }
+    }
+
+    private ExecutorService newExecutor(int nThreads) {
+        final AtomicInteger counter = new AtomicInteger();
+        ThreadFactory tf = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "rdb-shard-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+        // Bounded queue, the caller runs the shard call itself when the pool is saturated.
+        return new ThreadPoolExecutor(nThreads, nThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(nThreads * 4), tf, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public RDBSingleConnection getShard(int index) {
+        return shards.get(index);
+    }
+
+    /**
+     * Shard owning key, for calls ShardedRDB does not wrap (counters, update, ...).
+     */
+    public RDBSingleConnection getShard(byte[] key) {
+        return shards.get(shardOf(key));
+    }
+
+    /**
+     * Stable across JVMs: Arrays.hashCode is fixed by its spec, then mixed
+     * so keys sharing a long prefix still spread.
+     */
+    public int shardOf(byte[] key) {
+        int h = Arrays.hashCode(key);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return (h & 0x7fffffff) % shards.size();
+    }
+
+    public void put(String key, String value) {
+        if (key != null && !key.isEmpty()) {
+            getShard(bytes(key)).put(key, value);
+        }
+    }
+
+    public void putByte(byte[] key, byte[] value) {
+        if (key != null && key.length > 0) {
+            getShard(key).putByte(key, value);
+        }
+    }
+
+    public String get(String key) {
+        return key != null && !key.isEmpty() ? getShard(bytes(key)).get(key) : null;
+    }
+
+    public byte[] getByte(byte[] key) {
+        return key != null && key.length > 0 ? getShard(key).getByte(key) : null;
+    }
+
+    public void delete(String key) {
+        if (key != null && !key.isEmpty()) {
+            getShard(bytes(key)).delete(key);
+        }
+    }
+
+    public void deleteByte(byte[] key) {
+        if (key != null && key.length > 0) {
+            getShard(key).deleteByte(key);
+        }
+    }
+
+    public Map<String, String> getList(List<String> listKey) throws RocksDBException {
+        Map<String, String> rs = new LinkedHashMap<>();
+        if (listKey != null && !listKey.isEmpty()) {
+            byte[][] arrKey = new byte[listKey.size()][];
+            for (int i = 0; i < arrKey.length; i++) {
+                String key = listKey.get(i);
+                arrKey[i] = key != null && !key.isEmpty() ? bytes(key) : null;
+            }
+            byte[][] arrValue = getListByte(arrKey);
+            for (int i = 0; i < arrKey.length; i++) {
+                if (arrKey[i] != null) {
+                    byte[] bv = arrValue[i];
+                    rs.put(listKey.get(i), bv != null ? nrs.deserializeString(bv) : null);
+                }
+            }
+        }
+        return rs;
+    }
+
+    /**
+     * One multiGet per shard, run in parallel.
+     * Result is aligned with arrKey, null or empty keys get a null value.
+     */
+    public byte[][] getListByte(byte[][] arrKey) throws RocksDBException {
+        if (arrKey == null) {
+            return new byte[0][];
+        }
+        final byte[][] rs = new byte[arrKey.length][];
+        fanOut(Arrays.asList(groupByShard(arrKey)), (shard, pos) -> {
+            byte[][] part = new byte[pos.length][];
+            for (int j = 0; j < pos.length; j++) {
+                part[j] = arrKey[pos[j]];
+            }
+            byte[][] values = shard.getListByte(part);
+            for (int j = 0; j < pos.length; j++) {
+                rs[pos[j]] = values[j];
+            }
+        });
+        return rs;
+    }
+
+    public void putBatch(Map<String, String> mapData) throws RocksDBException {
+        if (mapData == null || mapData.isEmpty()) {
+            return;
+        }
+        List<Map<String, String>> parts = newParts();
+        for (Map.Entry<String, String> e : mapData.entrySet()) {
+            if (e.getKey() != null && !e.getKey().isEmpty()) {
+                partOf(parts, shardOf(bytes(e.getKey())), LinkedHashMap::new).put(e.getKey(), e.getValue());
+            }
+        }
+        fanOut(parts, (shard, part) -> shard.putBatch(part));
+    }
+
+    public void putBatchByte(Map<byte[], byte[]> mapData) throws RocksDBException {
+        if (mapData == null || mapData.isEmpty()) {
+            return;
+        }
+        List<Map<byte[], byte[]>> parts = newParts();
+        for (Map.Entry<byte[], byte[]> e : mapData.entrySet()) {
+            if (e.getKey() != null && e.getKey().length > 0) {
+                partOf(parts, shardOf(e.getKey()), LinkedHashMap::new).put(e.getKey(), e.getValue());
+            }
+        }
+        fanOut(parts, (shard, part) -> shard.putBatchByte(part));
+    }
+
+    public void deleteBatch(List<String> listKey) throws RocksDBException {
+        if (listKey == null || listKey.isEmpty()) {
+            return;
+        }
+        List<List<String>> parts = newParts();
+        for (String key : listKey) {
+            if (key != null && !key.isEmpty()) {
+                partOf(parts, shardOf(bytes(key)), ArrayList::new).add(key);
+            }
+        }
+        fanOut(parts, (shard, part) -> shard.deleteBatch(part));
+    }
+
+    public void deleteBatchByte(List<byte[]> listKey) throws RocksDBException {
+        if (listKey == null || listKey.isEmpty()) {
+            return;
+        }
+        List<List<byte[]>> parts = newParts();
+        for (byte[] key : listKey) {
+            if (key != null && key.length > 0) {
+                partOf(parts, shardOf(key), ArrayList::new).add(key);
+            }
+        }
+        fanOut(parts, (shard, part) -> shard.deleteBatchByte(part));
+    }
+
+    /**
+     * Forward scan of [from, to) over all shards, in key order.
+     * The iterator must be closed unless it is consumed to the end.
+     */
+    public ShardedIterator scan(byte[] from, byte[] to) {
+        List<RDBIterator> list = new ArrayList<>(shards.size());
+        for (RDBSingleConnection shard : shards) {
+            list.add(shard.scan(from, to));
+        }
+        return new ShardedIterator(list, false);
+    }
+
+    public ShardedIterator scanReverse(byte[] from, byte[] to) {
+        List<RDBIterator> list = new ArrayList<>(shards.size());
+        for (RDBSingleConnection shard : shards) {
+            list.add(shard.scanReverse(from, to));
+        }
+        return new ShardedIterator(list, true);
+    }
+
+    public ShardedIterator scanPrefix(byte[] prefix) {
+        List<RDBIterator> list = new ArrayList<>(shards.size());
+        for (RDBSingleConnection shard : shards) {
+            list.add(shard.scanPrefix(prefix));
+        }
+        return new ShardedIterator(list, false);
+    }
+
+    public ShardedIterator scanPrefix(String prefix) {
+        return scanPrefix(prefix != null ? bytes(prefix) : null);
+    }
+
+    /**
+     * Stop the fan-out pool and release every shard, a shard directory also
+     * opened with RDBSingleConnection.getInstance stays open for that holder.
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        for (RDBSingleConnection shard : shards) {
+            shard.releaseShared();
+        }
+    }
+
+    private interface ShardTask<T> {
+        void run(RDBSingleConnection shard, T part) throws Exception;
+    }
+
+    /**
+     * One slot per shard, null until the shard gets a key.
+     */
+    private <T> List<T> newParts() {
+        return new ArrayList<>(Collections.<T>nCopies(shards.size(), null));
+    }
+
+    private static <T> T partOf(List<T> parts, int shard, Supplier<T> factory) {
+        T part = parts.get(shard);
+        if (part == null) {
+            part = factory.get();
+            parts.set(shard, part);
+        }
+        return part;
+    }
+
+    /**
+     * Positions of the non-empty keys of arrKey per shard, null for shards without keys.
+     */
+    private int[][] groupByShard(byte[][] arrKey) {
+        int n = shards.size();
+        int[] shardOfKey = new int[arrKey.length];
+        int[] counts = new int[n];
+        for (int i = 0; i < arrKey.length; i++) {
+            byte[] key = arrKey[i];
+            shardOfKey[i] = key != null && key.length > 0 ? shardOf(key) : -1;
+            if (shardOfKey[i] >= 0) {
+                counts[shardOfKey[i]]++;
+            }
+        }
+        int[][] positions = new int[n][];
+        for (int s = 0; s < n; s++) {
+            positions[s] = counts[s] > 0 ? new int[counts[s]] : null;
+            counts[s] = 0;
+        }
+        for (int i = 0; i < arrKey.length; i++) {
+            int s = shardOfKey[i];
+            if (s >= 0) {
+                positions[s][counts[s]++] = i;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Run task for every non-null part, part i on shard i. The last part runs
+     * on the calling thread, so a call touching a single shard never hands off.
+     */
+    private <T> void fanOut(List<T> parts, final ShardTask<T> task) throws RocksDBException {
+        int last = -1;
+        for (int i = 0; i < parts.size(); i++) {
+            if (parts.get(i) != null) {
+                last = i;
+            }
+        }
+        if (last < 0) {
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < last; i++) {
+            final T part = parts.get(i);
+            final RDBSingleConnection shard = shards.get(i);
+            if (part != null) {
+                futures.add(executor.submit(() -> {
+                    task.run(shard, part);
+                    return null;
+                }));
+            }
+        }
+        Throwable error = null;
+        try {
+            task.run(shards.get(last), parts.get(last));
+        } catch (Exception ex) {
+            error = ex;
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException ex) {
+                error = error != null ? error : ex.getCause();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                error = error != null ? error : ex;
+            }
+        }
+        if (error instanceof RocksDBException) {
+            throw (RocksDBException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error != null) {
+            logger.error("fanOut: ", error);
+            throw new RocksDBException("ShardedRDB: " + error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.rocksdb.Cache;
+import org.rocksdb.ClockCache;
+import org.rocksdb.LRUCache;
+import org.rocksdb.WriteBufferManager;
+
+/**
+ * One block cache and one WriteBufferManager shared by every
+ * RDBSingleConnection opened with a WorkloadPreset, so memory stays bounded
+ * however many databases the JVM opens. Memtables are charged to the block
+ * cache. Created on the first acquire and released when the last
+ * connection using them is closed.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public final class SharedCache {
+
+    public static final long DEFAULT_BLOCK_CACHE_BYTES = 256L << 20;
+    public static final long DEFAULT_WRITE_BUFFER_BYTES = 128L << 20;
+
+    private static final Lock lock = new ReentrantLock();
+    private static long blockCacheBytes = DEFAULT_BLOCK_CACHE_BYTES;
+    private static long writeBufferBytes = DEFAULT_WRITE_BUFFER_BYTES;
+    private static boolean clockCache;
+    private static Cache blockCache;
+    private static WriteBufferManager writeBufferManager;
+    private static int refCount;
+
+    private SharedCache() {
+    }
+
+    /**
+     * Sizes used the next time the cache is created, call before opening the
+     * first connection.
+     *
+     * @param blockCacheBytes capacity of the block cache, memtables included
+     * @param writeBufferBytes total memtable budget of all connections
+     * @param clockCache ClockCache instead of LRUCache, less lock contention on hot blocks
+     */
+    public static void configure(long blockCacheBytes, long writeBufferBytes, boolean clockCache) {
+        lock.lock();
+        try {
+            if (blockCache != null) {
+                throw new IllegalStateException("SharedCache is in use, configure it before opening connections");
+            }
+            SharedCache.blockCacheBytes = blockCacheBytes;
+            SharedCache.writeBufferBytes = writeBufferBytes;
+            SharedCache.clockCache = clockCache;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static void acquire() {
+        lock.lock();
+        try {
+            if (refCount++ == 0) {
+                // 6 shard bits, high priority pool keeps index and filter blocks
+                blockCache = clockCache ? new ClockCache(blockCacheBytes, 6) : new LRUCache(blockCacheBytes, 6, false, 0.1);
+                writeBufferManager = new WriteBufferManager(writeBufferBytes, blockCache);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take a reference on the cache only if it exists already, for column
+     * families that fall back to it. Returns null when no cache is in use,
+     * otherwise the caller must release() it.
+     */
+    static Cache acquireExisting() {
+        lock.lock();
+        try {
+            if (blockCache == null) {
+                return null;
+            }
+            refCount++;
+            return blockCache;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static void release() {
+        lock.lock();
+        try {
+            if (refCount > 0 && --refCount == 0) {
+                writeBufferManager.close();
+                blockCache.close();
+                writeBufferManager = null;
+                blockCache = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static Cache getBlockCache() {
+        return blockCache;
+    }
+
+    public static WriteBufferManager getWriteBufferManager() {
+        return writeBufferManager;
+    }
+}
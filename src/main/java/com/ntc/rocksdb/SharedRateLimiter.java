@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.rocksdb.RateLimiter;
+import org.rocksdb.RateLimiterMode;
+
+/**
+ * One RateLimiter shared by every RDBSingleConnection opened with a
+ * CompactionConfig, so flushes and compactions of all databases in the JVM
+ * draw from a single disk write budget. The limiter is auto-tuned: RocksDB
+ * lowers the rate while there is little background work and raises it up to
+ * the configured rate when compaction falls behind. Created on the first
+ * acquire and released when the last connection using it is closed.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public final class SharedRateLimiter {
+
+    public static final long DEFAULT_BYTES_PER_SECOND = 256L << 20;
+    public static final long DEFAULT_REFILL_PERIOD_MICROS = 100_000L;
+    public static final int DEFAULT_FAIRNESS = 10;
+
+    private static final Lock lock = new ReentrantLock();
+    private static long bytesPerSecond = DEFAULT_BYTES_PER_SECOND;
+    private static long offPeakBytesPerSecond;
+    private static boolean autoTune = true;
+    private static RateLimiter rateLimiter;
+    private static int refCount;
+    private static int offPeakCount;
+
+    private SharedRateLimiter() {
+    }
+
+    /**
+     * Rates used the next time the limiter is created, call before opening
+     * the first connection.
+     *
+     * @param bytesPerSecond upper bound of background writes, flushes and compactions
+     * @param offPeakBytesPerSecond bound while a connection is inside its off-peak
+     * window, 0 keeps bytesPerSecond
+     * @param autoTune let RocksDB adjust the rate below bytesPerSecond
+     */
+    public static void configure(long bytesPerSecond, long offPeakBytesPerSecond, boolean autoTune) {
+        lock.lock();
+        try {
+            if (rateLimiter != null) {
+                throw new IllegalStateException("SharedRateLimiter is in use, configure it before opening connections");
+            }
+            SharedRateLimiter.bytesPerSecond = bytesPerSecond;
+            SharedRateLimiter.offPeakBytesPerSecond = offPeakBytesPerSecond;
+            SharedRateLimiter.autoTune = autoTune;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static void acquire() {
+        lock.lock();
+        try {
+            if (refCount++ == 0) {
+                rateLimiter = new RateLimiter(bytesPerSecond, DEFAULT_REFILL_PERIOD_MICROS, DEFAULT_FAIRNESS,
+                        RateLimiterMode.WRITES_ONLY, autoTune);
+                offPeakCount = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static void release() {
+        lock.lock();
+        try {
+            if (refCount > 0 && --refCount == 0) {
+                rateLimiter.close();
+                rateLimiter = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A connection entered (true) or left (false) its off-peak window, the
+     * off-peak rate applies while at least one connection is inside it.
+     */
+    static void setOffPeak(boolean offPeak) {
+        lock.lock();
+        try {
+            if (rateLimiter == null || offPeakBytesPerSecond <= 0) {
+                return;
+            }
+            int before = offPeakCount;
+            offPeakCount = Math.max(0, offPeakCount + (offPeak ? 1 : -1));
+            if ((before == 0) != (offPeakCount == 0)) {
+                rateLimiter.setBytesPerSecond(offPeakCount > 0 ? offPeakBytesPerSecond : bytesPerSecond);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+}
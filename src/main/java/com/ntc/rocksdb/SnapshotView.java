@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.List;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.Snapshot;
+import static org.rocksdb.util.ByteUtil.bytes;
+
+/**
+ * Reads of one consistent point in time, passed to
+ * RDBSingleConnection.withSnapshot. Only valid inside the callback.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class SnapshotView {
+
+    private final RDBSingleConnection conn;
+    private final RocksDB db;
+    private final Snapshot snapshot;
+    private final ReadOptions readOptions;
+
+    SnapshotView(RDBSingleConnection conn, RocksDB db, Snapshot snapshot, ReadOptions readOptions) {
+        this.conn = conn;
+        this.db = db;
+        this.snapshot = snapshot;
+        this.readOptions = readOptions;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public long getSequenceNumber() {
+        return snapshot.getSequenceNumber();
+    }
+
+    public byte[] getByte(byte[] key) throws RocksDBException {
+        return key != null && key.length > 0 ? conn.decodeValue(db.get(readOptions, key)) : null;
+    }
+
+    public String get(String key) throws RocksDBException {
+        if (key != null && !key.isEmpty()) {
+            byte[] bv = conn.decodeValue(db.get(readOptions, bytes(key)));
+            return bv != null ? conn.getNRSerializer().deserializeString(bv) : null;
+        }
+        return null;
+    }
+
+    public byte[] getByte(Namespace ns, byte[] key) throws RocksDBException {
+        return key != null && key.length > 0 ? db.get(ns.getHandle(), readOptions, key) : null;
+    }
+
+    /**
+     * Values in the order of keys, null for absent keys.
+     */
+    public List<byte[]> getListByte(List<byte[]> keys) throws RocksDBException {
+        List<byte[]> rs = db.multiGetAsList(readOptions, keys);
+        for (int i = 0; i < rs.size(); i++) {
+            rs.set(i, conn.decodeValue(rs.get(i)));
+        }
+        return rs;
+    }
+
+    /**
+     * Forward scan of [from, to) at the snapshot, close the iterator.
+     */
+    public RDBIterator scan(byte[] from, byte[] to) {
+        return conn.newIterator(from, to, false, snapshot, ReadProfile.SCAN);
+    }
+
+    public RDBIterator scanPrefix(byte[] prefix) {
+        return conn.newIterator(prefix, BytesUtil.prefixEnd(prefix), false, snapshot, ReadProfile.SCAN);
+    }
+
+    public RDBIterator scan(Namespace ns, byte[] from, byte[] to) {
+        return conn.newIterator(ns.getHandle(), from, to, false, snapshot, ReadProfile.SCAN);
+    }
+}
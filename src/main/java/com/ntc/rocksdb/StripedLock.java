@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed table of locks selected by a hash of the key, so that
+ * read-modify-write on unrelated keys does not contend.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public final class StripedLock {
+
+    public static final int MAX_STRIPES = 1 << 16;
+
+    private final Lock[] locks;
+    private final int mask;
+
+    public StripedLock(int stripes) {
+        // clamp first, then round up to a power of two for the mask
+        int clamped = Math.max(1, Math.min(stripes, MAX_STRIPES));
+        int n = Integer.highestOneBit(clamped);
+        if (n < clamped) {
+            n <<= 1;
+        }
+        locks = new Lock[n];
+        for (int i = 0; i < n; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = n - 1;
+    }
+
+    public Lock get(byte[] key) {
+        return locks[stripeOf(key)];
+    }
+
+    public int stripeOf(byte[] key) {
+        int h = 1;
+        for (byte b : key) {
+            h = 31 * h + b;
+        }
+        // Spread the high bits, Arrays.hashCode is weak in the low bits for short keys.
+        h ^= (h >>> 16);
+        h *= 0x85EBCA6B;
+        h ^= (h >>> 13);
+        return h & mask;
+    }
+
+    /**
+     * Lock the stripes of all keys in ascending stripe order, so callers
+     * locking overlapping key sets can not deadlock. Returns the locked
+     * stripes for unlockAll.
+     */
+    public int[] lockAll(Collection<byte[]> keys) {
+        int[] stripes = new int[keys.size()];
+        int n = 0;
+        for (byte[] key : keys) {
+            stripes[n++] = stripeOf(key);
+        }
+        Arrays.sort(stripes);
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (m == 0 || stripes[i] != stripes[m - 1]) {
+                stripes[m++] = stripes[i];
+            }
+        }
+        stripes = Arrays.copyOf(stripes, m);
+        for (int s : stripes) {
+            locks[s].lock();
+        }
+        return stripes;
+    }
+
+    public void unlockAll(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+
+    public int size() {
+        return locks.length;
+    }
+}
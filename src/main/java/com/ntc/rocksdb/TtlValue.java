@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.Arrays;
+
+/**
+ * Value format of RDBSingleConnection.putTtl: 2 magic bytes, the expiry in
+ * epoch seconds as a big-endian unsigned int, then the value.
+ * Values without the header, or with expiry 0xFFFFFFFF, never expire.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public final class TtlValue {
+
+    public static final int HEADER_SIZE = 6;
+    private static final byte MAGIC_0 = (byte) 0xE7;
+    private static final byte MAGIC_1 = (byte) 0x71;
+    private static final int NO_EXPIRY = 0xFFFFFFFF;
+
+    private TtlValue() {
+    }
+
+    public static byte[] wrap(byte[] value, int ttlSeconds, long nowMillis) {
+        long expiry = nowMillis / 1000 + Math.max(0, ttlSeconds);
+        byte[] rs = new byte[HEADER_SIZE + value.length];
+        rs[0] = MAGIC_0;
+        rs[1] = MAGIC_1;
+        Codecs.writeInt((int) Math.min(expiry, 0xFFFFFFFEL), rs, 2);
+        System.arraycopy(value, 0, rs, HEADER_SIZE, value.length);
+        return rs;
+    }
+
+    /**
+     * Header that never expires, escapes a raw value starting with the magic.
+     */
+    public static byte[] wrapNoExpiry(byte[] value) {
+        byte[] rs = new byte[HEADER_SIZE + value.length];
+        rs[0] = MAGIC_0;
+        rs[1] = MAGIC_1;
+        Codecs.writeInt(NO_EXPIRY, rs, 2);
+        System.arraycopy(value, 0, rs, HEADER_SIZE, value.length);
+        return rs;
+    }
+
+    public static boolean hasHeader(byte[] stored) {
+        return stored != null && stored.length >= HEADER_SIZE && stored[0] == MAGIC_0 && stored[1] == MAGIC_1;
+    }
+
+    /**
+     * Expiry in epoch seconds, Long.MAX_VALUE without header.
+     */
+    public static long expirySeconds(byte[] stored) {
+        if (!hasHeader(stored)) {
+            return Long.MAX_VALUE;
+        }
+        int expiry = Codecs.readInt(stored, 2);
+        return expiry == NO_EXPIRY ? Long.MAX_VALUE : Integer.toUnsignedLong(expiry);
+    }
+
+    public static boolean isExpired(byte[] stored, long nowMillis) {
+        return expirySeconds(stored) <= nowMillis / 1000;
+    }
+
+    /**
+     * The value without header, null when stored is null or expired.
+     */
+    public static byte[] unwrap(byte[] stored, long nowMillis) {
+        if (stored == null || isExpired(stored, nowMillis)) {
+            return null;
+        }
+        return hasHeader(stored) ? Arrays.copyOfRange(stored, HEADER_SIZE, stored.length) : stored;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+
+/**
+ * Typed view of a RDBSingleConnection. Keys and values go through codecs.
+ * Single-key put/get encode straight into the per-thread direct buffers of
+ * RDBSingleConnection.getBufferPool() and use the zero-copy ByteBuffer path,
+ * so no intermediate byte[] is allocated. Batch and scan calls use the
+ * byte[] API. Use SORTABLE_* codecs for numeric keys that are scanned.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class TypedStore<K, V> {
+
+    private final RDBSingleConnection conn;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+
+    public TypedStore(RDBSingleConnection conn, Codec<K> keyCodec, Codec<V> valueCodec) {
+        this.conn = conn;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+    }
+
+    public RDBSingleConnection getConnection() {
+        return conn;
+    }
+
+    public Codec<K> getKeyCodec() {
+        return keyCodec;
+    }
+
+    public Codec<V> getValueCodec() {
+        return valueCodec;
+    }
+
+    private ByteBuffer keyBuffer(K key) {
+        ByteBuffer bk = RDBSingleConnection.getBufferPool().keyBuffer(keyCodec.encodedSize(key));
+        keyCodec.encode(key, bk);
+        bk.flip();
+        return bk;
+    }
+
+    /**
+     * Read the value of key into the per-thread value buffer, growing it
+     * when the value does not fit. Returns null when absent.
+     */
+    static ByteBuffer getDirect(RDBSingleConnection conn, ByteBuffer key) throws RocksDBException {
+        DirectBufferPool pool = RDBSingleConnection.getBufferPool();
+        ByteBuffer out = pool.valueBuffer(0);
+        while (true) {
+            int size = conn.get(key.duplicate(), out);
+            if (size == RocksDB.NOT_FOUND) {
+                return null;
+            }
+            if (size <= out.capacity()) {
+                return out;
+            }
+            out = pool.valueBuffer(size);
+        }
+    }
+
+    public void put(K key, V value) throws RocksDBException {
+        ByteBuffer bk = keyBuffer(key);
+        ByteBuffer bv = RDBSingleConnection.getBufferPool().valueBuffer(valueCodec.encodedSize(value));
+        valueCodec.encode(value, bv);
+        bv.flip();
+        conn.put(bk, bv);
+    }
+
+    public V get(K key) throws RocksDBException {
+        ByteBuffer bv = getDirect(conn, keyBuffer(key));
+        return bv != null ? valueCodec.decode(bv) : null;
+    }
+
+    public void delete(K key) {
+        conn.deleteByte(keyCodec.encode(key));
+    }
+
+    public void putAll(Map<K, V> mapData) throws IOException {
+        if (mapData != null && !mapData.isEmpty()) {
+            Map<byte[], byte[]> mapByte = new LinkedHashMap<>();
+            for (Map.Entry<K, V> e : mapData.entrySet()) {
+                if (e.getKey() != null && e.getValue() != null) {
+                    mapByte.put(keyCodec.encode(e.getKey()), valueCodec.encode(e.getValue()));
+                }
+            }
+            conn.putBatchByte(mapByte);
+        }
+    }
+
+    /**
+     * Values of keys in the order of keys, absent keys map to null.
+     */
+    public Map<K, V> getAll(List<K> keys) throws RocksDBException {
+        Map<K, V> rs = new LinkedHashMap<>();
+        if (keys != null && !keys.isEmpty()) {
+            byte[][] arrKey = new byte[keys.size()][];
+            for (int i = 0; i < arrKey.length; i++) {
+                K key = keys.get(i);
+                arrKey[i] = key != null ? keyCodec.encode(key) : null;
+            }
+            byte[][] arrValue = conn.getListByte(arrKey);
+            for (int i = 0; i < arrKey.length; i++) {
+                if (arrKey[i] != null) {
+                    byte[] bv = arrValue[i];
+                    rs.put(keys.get(i), bv != null ? valueCodec.decode(bv) : null);
+                }
+            }
+        }
+        return rs;
+    }
+
+    public void deleteAll(Collection<K> keys) throws IOException {
+        if (keys != null && !keys.isEmpty()) {
+            List<byte[]> listKey = new ArrayList<>(keys.size());
+            for (K key : keys) {
+                if (key != null) {
+                    listKey.add(keyCodec.encode(key));
+                }
+            }
+            conn.deleteBatchByte(listKey);
+        }
+    }
+
+    /**
+     * Entries of [from, to) in key order, null bound means unbounded.
+     * The stream holds a native iterator, close it (try-with-resources).
+     */
+    public Stream<Map.Entry<K, V>> scan(K from, K to) {
+        return decode(conn.scan(encodeOrNull(from), encodeOrNull(to)));
+    }
+
+    public Stream<Map.Entry<K, V>> scanReverse(K from, K to) {
+        return decode(conn.scanReverse(encodeOrNull(from), encodeOrNull(to)));
+    }
+
+    private byte[] encodeOrNull(K key) {
+        return key != null ? keyCodec.encode(key) : null;
+    }
+
+    private Stream<Map.Entry<K, V>> decode(RDBIterator it) {
+        return it.stream().map(kv -> new AbstractMap.SimpleImmutableEntry<>(
+                keyCodec.decode(kv.getKey()), valueCodec.decode(kv.getValue())));
+    }
+}
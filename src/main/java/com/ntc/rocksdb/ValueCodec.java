@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stored value format of ValueCompression: 2 magic bytes (0xC7 0x5A, never
+ * the start of valid UTF-8), a format byte, the raw length as a big-endian
+ * int, for DEFLATE_DICT the dictionary id, then the payload.
+ * Values without the magic are stored and returned unchanged. Raw values
+ * that happen to start with the magic are written with the NONE format so
+ * they can not be mistaken for compressed ones. Such values written before
+ * compression was enabled fail the header checks (length, dictionary id,
+ * inflate) and are returned as stored.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+final class ValueCodec {
+
+    static final byte MAGIC_0 = (byte) 0xC7;
+    static final byte MAGIC_1 = (byte) 0x5A;
+    static final byte NONE = 0;
+    static final byte DEFLATE = 1;
+    static final byte DEFLATE_DICT = 2;
+    private static final int HEADER_SIZE = 7;
+
+    private final ValueCompression config;
+    private final Map<Integer, byte[]> mapDict = new ConcurrentHashMap<>();
+    private volatile int activeDictId;
+    private volatile byte[] activeDict;
+    private final ThreadLocal<Deflater> deflater;
+    private final ThreadLocal<Inflater> inflater = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    ValueCodec(final ValueCompression config) {
+        this.config = config;
+        deflater = ThreadLocal.withInitial(() -> new Deflater(Math.max(config.getLevel(), 1), true));
+    }
+
+    static int dictionaryId(byte[] dict) {
+        CRC32 crc = new CRC32();
+        crc.update(dict, 0, dict.length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Make dict available for decoding, and for encoding when active.
+     */
+    void addDictionary(byte[] dict, boolean active) {
+        int id = dictionaryId(dict);
+        mapDict.put(id, dict);
+        if (active) {
+            activeDict = dict;
+            activeDictId = id;
+        }
+    }
+
+    static boolean hasHeader(byte[] stored) {
+        return stored != null && stored.length >= HEADER_SIZE && stored[0] == MAGIC_0 && stored[1] == MAGIC_1;
+    }
+
+    byte[] encode(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.length >= config.getMinSize() && config.getLevel() > 0) {
+            byte[] rs = deflate(value);
+            if (rs != null) {
+                return rs;
+            }
+        }
+        return hasHeader(value) ? wrap(NONE, value, 0, value.length, value.length) : value;
+    }
+
+    /**
+     * Compressed value, null when it does not save anything.
+     */
+    private byte[] deflate(byte[] value) {
+        byte[] dict = activeDict;
+        int headerSize = dict != null ? HEADER_SIZE + 4 : HEADER_SIZE;
+        Deflater d = deflater.get();
+        d.reset();
+        if (dict != null) {
+            d.setDictionary(dict);
+        }
+        d.setInput(value);
+        d.finish();
+        byte[] out = new byte[value.length];
+        int n = headerSize;
+        while (!d.finished() && n < out.length) {
+            int r = d.deflate(out, n, out.length - n);
+            if (r == 0) {
+                break;
+            }
+            n += r;
+        }
+        if (!d.finished()) {
+            return null;
+        }
+        out[0] = MAGIC_0;
+        out[1] = MAGIC_1;
+        out[2] = dict != null ? DEFLATE_DICT : DEFLATE;
+        Codecs.writeInt(value.length, out, 3);
+        if (dict != null) {
+            Codecs.writeInt(activeDictId, out, HEADER_SIZE);
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static byte[] wrap(byte format, byte[] value, int offset, int length, int rawLength) {
+        byte[] rs = new byte[HEADER_SIZE + length];
+        rs[0] = MAGIC_0;
+        rs[1] = MAGIC_1;
+        rs[2] = format;
+        Codecs.writeInt(rawLength, rs, 3);
+        System.arraycopy(value, offset, rs, HEADER_SIZE, length);
+        return rs;
+    }
+
+    byte[] decode(byte[] stored) {
+        if (!hasHeader(stored)) {
+            return stored;
+        }
+        switch (stored[2]) {
+            case NONE:
+                // an escaped raw value records its own length, anything else was written raw
+                if (Codecs.readInt(stored, 3) != stored.length - HEADER_SIZE) {
+                    return stored;
+                }
+                return Arrays.copyOfRange(stored, HEADER_SIZE, stored.length);
+            case DEFLATE:
+                return inflate(stored, HEADER_SIZE, null);
+            case DEFLATE_DICT: {
+                if (stored.length < HEADER_SIZE + 4) {
+                    return stored;
+                }
+                int id = Codecs.readInt(stored, HEADER_SIZE);
+                byte[] dict = mapDict.get(id);
+                if (dict == null) {
+                    // a raw value that only looks compressed, or a dictionary this db never had
+                    return stored;
+                }
+                return inflate(stored, HEADER_SIZE + 4, dict);
+            }
+            default:
+                return stored;
+        }
+    }
+
+    private byte[] inflate(byte[] stored, int offset, byte[] dict) {
+        int rawLength = Codecs.readInt(stored, 3);
+        if (rawLength < 0) {
+            return stored;
+        }
+        Inflater inf = inflater.get();
+        inf.reset();
+        try {
+            if (dict != null) {
+                inf.setDictionary(dict);
+            }
+            inf.setInput(stored, offset, stored.length - offset);
+            byte[] rs = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength && !inf.finished()) {
+                int r = inf.inflate(rs, n, rawLength - n);
+                if (r == 0 && (inf.needsInput() || inf.needsDictionary())) {
+                    break;
+                }
+                n += r;
+            }
+            // a raw value written before compression was enabled that only looks compressed
+            return n == rawLength ? rs : stored;
+        } catch (DataFormatException ex) {
+            return stored;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Settings of the value compression layer of RDBSingleConnection, see
+ * RDBConfig.setValueCompression. Values of at least minSize bytes are
+ * deflated before they reach RocksDB, with the active trained dictionary
+ * when there is one, so memtables, WAL and compaction move fewer bytes.
+ * Compressed values carry a header (see ValueCodec), values without it are
+ * returned as they are, so data written before enabling it stays readable.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class ValueCompression {
+
+    private int minSize = 1024;
+    private int level = 3;
+    private byte[] dictionary;
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Smaller values are stored as they are, default 1KB.
+     */
+    public ValueCompression setMinSize(int minSize) {
+        this.minSize = minSize;
+        return this;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Deflater level 1 (fastest) to 9, default 3. 0 stops compressing new
+     * values, compressed ones stay readable.
+     */
+    public ValueCompression setLevel(int level) {
+        if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.level = level;
+        return this;
+    }
+
+    public byte[] getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Preset dictionary, e.g. from trainDictionary. It is stored in the
+     * database on open and becomes the active one. Without it the last
+     * dictionary trained by RDBSingleConnection.trainCompressionDictionary
+     * is used, if any.
+     */
+    public ValueCompression setDictionary(byte[] dictionary) {
+        this.dictionary = dictionary;
+        return this;
+    }
+
+    /**
+     * Build a deflate dictionary of at most maxBytes from sample values.
+     * Keeps the 16-byte segments found in several samples, the most common
+     * ones last, where deflate references them with the shortest distances.
+     */
+    public static byte[] trainDictionary(List<byte[]> samples, int maxBytes) {
+        final int seg = 16;
+        Map<ByteBuffer, int[]> counts = new HashMap<>();
+        for (int s = 0; s < samples.size(); s++) {
+            byte[] sample = samples.get(s);
+            for (int off = 0; off + seg <= sample.length; off += seg / 2) {
+                ByteBuffer key = ByteBuffer.wrap(sample, off, seg).slice();
+                int[] c = counts.get(key);
+                if (c == null) {
+                    counts.put(key, new int[]{1, s});
+                } else if (c[1] != s) {
+                    // count each segment once per sample
+                    c[0]++;
+                    c[1] = s;
+                }
+            }
+        }
+        List<Map.Entry<ByteBuffer, int[]>> common = new ArrayList<>();
+        for (Map.Entry<ByteBuffer, int[]> e : counts.entrySet()) {
+            if (e.getValue()[0] > 1) {
+                common.add(e);
+            }
+        }
+        common.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+        int n = Math.min(common.size(), Math.max(0, maxBytes) / seg);
+        byte[] dict = new byte[n * seg];
+        // most frequent segment goes last
+        for (int i = 0; i < n; i++) {
+            common.get(i).getKey().duplicate().get(dict, (n - 1 - i) * seg, seg);
+        }
+        return dict;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.CompressionType;
+import org.rocksdb.Filter;
+import org.rocksdb.IndexType;
+import org.rocksdb.Options;
+import org.rocksdb.WriteBufferManager;
+
+/**
+ * Table format and memtable tuning by workload, set with RDBConfig.setPreset.
+ * Every preset uses the SharedCache block cache and WriteBufferManager,
+ * caches index and filter blocks in it with high priority and pins them for
+ * L0 files.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public enum WorkloadPreset {
+    /**
+     * Random gets: full bloom filter, small blocks, plain binary index.
+     */
+    POINT_LOOKUP,
+    /**
+     * Range scans: large blocks, partitioned index and filters, LZ4 and
+     * compaction readahead.
+     */
+    SCAN_HEAVY,
+    /**
+     * Ingest: large memtables merged before flush, more L0 files before
+     * compaction and stalls, smoothed syncs.
+     */
+    WRITE_HEAVY,
+    /**
+     * Small footprint: partitioned index and filters so only the top level
+     * stays in memory, small memtables, bounded open files.
+     */
+    LOW_MEMORY;
+
+    public static final int BLOOM_BITS_PER_KEY = 10;
+
+    /**
+     * Returns the bloom filter set on the table config, owned by the caller
+     * and closed after the options.
+     */
+    public Filter apply(Options options, Cache blockCache, WriteBufferManager writeBufferManager) {
+        Filter filter = new BloomFilter(BLOOM_BITS_PER_KEY, false);
+        BlockBasedTableConfig table = new BlockBasedTableConfig()
+                .setFormatVersion(4)
+                .setBlockCache(blockCache)
+                .setCacheIndexAndFilterBlocks(true)
+                .setCacheIndexAndFilterBlocksWithHighPriority(true)
+                .setPinL0FilterAndIndexBlocksInCache(true)
+                .setFilterPolicy(filter);
+        switch (this) {
+            case POINT_LOOKUP:
+                table.setBlockSize(4 << 10).setIndexType(IndexType.kBinarySearch);
+                break;
+            case SCAN_HEAVY:
+                partitioned(table).setBlockSize(32 << 10);
+                options.setCompressionType(CompressionType.LZ4_COMPRESSION)
+                        .setCompactionReadaheadSize(2L << 20);
+                break;
+            case WRITE_HEAVY:
+                table.setBlockSize(16 << 10);
+                options.setWriteBufferSize(128L << 20)
+                        .setMaxWriteBufferNumber(4)
+                        .setMinWriteBufferNumberToMerge(2)
+                        .setLevel0FileNumCompactionTrigger(8)
+                        .setLevel0SlowdownWritesTrigger(24)
+                        .setLevel0StopWritesTrigger(40)
+                        .setMaxBytesForLevelBase(1L << 30)
+                        .setTargetFileSizeBase(128L << 20)
+                        .setBytesPerSync(1L << 20)
+                        .setMaxBackgroundJobs(Math.max(4, Runtime.getRuntime().availableProcessors()));
+                break;
+            case LOW_MEMORY:
+                partitioned(table).setBlockSize(16 << 10);
+                options.setWriteBufferSize(8L << 20)
+                        .setMaxWriteBufferNumber(2)
+                        .setMaxOpenFiles(256)
+                        .setCompressionType(CompressionType.LZ4_COMPRESSION);
+                break;
+            default:
+                break;
+        }
+        options.setTableFormatConfig(table);
+        options.setWriteBufferManager(writeBufferManager);
+        return filter;
+    }
+
+    private static BlockBasedTableConfig partitioned(BlockBasedTableConfig table) {
+        return table.setIndexType(IndexType.kTwoLevelIndexSearch)
+                .setPartitionFilters(true)
+                .setMetadataBlockSize(4 << 10)
+                .setPinTopLevelIndexAndFilter(true);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ntc.rocksdb;
+
+import org.rocksdb.WriteOptions;
+
+/**
+ * Durability profiles, RDBSingleConnection keeps one WriteOptions per profile.
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public enum WriteProfile {
+    /**
+     * WAL disabled, writes since the last flush are lost on crash.
+     */
+    FAST,
+    /**
+     * WAL written but not fsynced, survives a process crash.
+     */
+    DEFAULT,
+    /**
+     * WAL fsynced before the write returns, survives a machine crash.
+     */
+    SYNC;
+
+    public WriteOptions newWriteOptions() {
+        WriteOptions wo = new WriteOptions();
+        switch (this) {
+            case FAST:
+                wo.setDisableWAL(true);
+                break;
+            case SYNC:
+                wo.setSync(true);
+                break;
+            default:
+                break;
+        }
+        return wo;
+    }
+}
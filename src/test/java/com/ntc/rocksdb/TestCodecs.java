@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ntc.rocksdb;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.*;
+
+/**
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class TestCodecs {
+    
+    private static <T> T roundTrip(Codec<T> codec, T value) {
+        byte[] bb = codec.encode(value);
+        Assert.assertEquals("encodedSize " + value, codec.encodedSize(value), bb.length);
+        ByteBuffer buf = ByteBuffer.allocate(bb.length + 2);
+        buf.position(2);
+        codec.encode(value, buf);
+        buf.flip();
+        buf.position(2);
+        Assert.assertEquals("ByteBuffer " + value, value, codec.decode(buf));
+        return codec.decode(bb);
+    }
+    
+    @Test
+    public void testFixed() {
+        Assert.assertEquals("testFixed bool", true, roundTrip(Codecs.BOOL, true));
+        Assert.assertEquals("testFixed int", Integer.MIN_VALUE, (int) roundTrip(Codecs.INT, Integer.MIN_VALUE));
+        Assert.assertEquals("testFixed long", -42L, (long) roundTrip(Codecs.LONG, -42L));
+        Assert.assertEquals("testFixed float", 12.0000001F, roundTrip(Codecs.FLOAT, 12.0000001F), 0F);
+        Assert.assertEquals("testFixed double", -13.0000001D, roundTrip(Codecs.DOUBLE, -13.0000001D), 0D);
+    }
+    
+    @Test
+    public void testVarint() {
+        int[] arrInt = {0, 1, -1, 63, -64, 64, 300, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int i : arrInt) {
+            Assert.assertEquals("testVarint int", i, (int) roundTrip(Codecs.VARINT, i));
+        }
+        long[] arrLong = {0L, -1L, 1L << 40, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long l : arrLong) {
+            Assert.assertEquals("testVarint long", l, (long) roundTrip(Codecs.VARLONG, l));
+        }
+        Assert.assertEquals("testVarint small", 1, Codecs.VARINT.encodedSize(-64));
+        Assert.assertEquals("testVarint max", 10, Codecs.VARLONG.encodedSize(Long.MIN_VALUE));
+    }
+    
+    @Test
+    public void testLittleEndian() {
+        byte[] bb = new byte[8];
+        Codecs.writeLongLE(0x0102030405060708L, bb, 0);
+        Assert.assertEquals("testLittleEndian first", 0x08, bb[0]);
+        Assert.assertEquals("testLittleEndian last", 0x01, bb[7]);
+        Assert.assertEquals("testLittleEndian rt", -2L, Codecs.readLongLE(bb, Codecs.writeLongLE(-2L, bb, 0) - 8));
+    }
+    
+    @Test
+    public void testSortable() {
+        long[] arrLong = {Long.MIN_VALUE, -1000L, -1L, 0L, 1L, 1000L, Long.MAX_VALUE};
+        for (int i = 1; i < arrLong.length; i++) {
+            Assert.assertTrue("testSortable long", BytesUtil.compare(Codecs.SORTABLE_LONG.encode(arrLong[i - 1]), Codecs.SORTABLE_LONG.encode(arrLong[i])) < 0);
+            Assert.assertEquals("testSortable long rt", arrLong[i], (long) roundTrip(Codecs.SORTABLE_LONG, arrLong[i]));
+        }
+        int[] arrInt = {Integer.MIN_VALUE, -5, 0, 5, Integer.MAX_VALUE};
+        for (int i = 1; i < arrInt.length; i++) {
+            Assert.assertTrue("testSortable int", BytesUtil.compare(Codecs.SORTABLE_INT.encode(arrInt[i - 1]), Codecs.SORTABLE_INT.encode(arrInt[i])) < 0);
+        }
+        double[] arrDouble = {Double.NEGATIVE_INFINITY, -1e10, -0.5, 0.0, 0.5, 1e10, Double.POSITIVE_INFINITY};
+        for (int i = 1; i < arrDouble.length; i++) {
+            Assert.assertTrue("testSortable double", BytesUtil.compare(Codecs.SORTABLE_DOUBLE.encode(arrDouble[i - 1]), Codecs.SORTABLE_DOUBLE.encode(arrDouble[i])) < 0);
+            Assert.assertEquals("testSortable double rt", arrDouble[i], roundTrip(Codecs.SORTABLE_DOUBLE, arrDouble[i]), 0D);
+        }
+    }
+    
+    @Test
+    public void testString() {
+        String[] arr = {"", "nghiatc", "ngh\u0129a", "\u4e2d\u6587", "\ud83d\ude00", "bad\ud800surrogate"};
+        for (String s : arr) {
+            Assert.assertArrayEquals("testString bytes", s.getBytes(StandardCharsets.UTF_8), Codecs.STRING.encode(s));
+        }
+        Assert.assertEquals("testString rt", "ngh\u0129a", roundTrip(Codecs.STRING, "ngh\u0129a"));
+        for (String s : arr) {
+            byte[] expected = s.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+            Codecs.STRING.encode(s, direct);
+            Assert.assertEquals("testString direct position", expected.length, direct.position());
+            byte[] actual = new byte[expected.length];
+            direct.flip();
+            direct.get(actual);
+            Assert.assertArrayEquals("testString direct bytes", expected, actual);
+        }
+    }
+}
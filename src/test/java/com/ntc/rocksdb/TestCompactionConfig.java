@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ntc.rocksdb;
+import org.junit.*;
+
+/**
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class TestCompactionConfig {
+    
+    @Test
+    public void testOffPeakWindow() {
+        CompactionConfig cc = new CompactionConfig().setOffPeakWindow(1, 5);
+        Assert.assertTrue("testOffPeakWindow start", cc.inOffPeakWindow(1));
+        Assert.assertTrue("testOffPeakWindow inside", cc.inOffPeakWindow(4));
+        Assert.assertFalse("testOffPeakWindow end excluded", cc.inOffPeakWindow(5));
+        Assert.assertFalse("testOffPeakWindow before", cc.inOffPeakWindow(0));
+    }
+    
+    @Test
+    public void testOffPeakWindowWrap() {
+        CompactionConfig cc = new CompactionConfig().setOffPeakWindow(22, 5);
+        Assert.assertTrue("testOffPeakWindowWrap evening", cc.inOffPeakWindow(23));
+        Assert.assertTrue("testOffPeakWindowWrap night", cc.inOffPeakWindow(0));
+        Assert.assertFalse("testOffPeakWindowWrap day", cc.inOffPeakWindow(12));
+        Assert.assertFalse("testOffPeakWindowWrap end excluded", cc.inOffPeakWindow(5));
+    }
+    
+    @Test
+    public void testOffPeakWindowDisabled() {
+        CompactionConfig cc = new CompactionConfig();
+        Assert.assertFalse("testOffPeakWindowDisabled default", cc.hasOffPeakWindow());
+        Assert.assertFalse("testOffPeakWindowDisabled hour", cc.inOffPeakWindow(3));
+        try {
+            cc.setOffPeakWindow(3, -1);
+            Assert.fail("testOffPeakWindowDisabled half window");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+}
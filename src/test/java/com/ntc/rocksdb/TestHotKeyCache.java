@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ntc.rocksdb;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.*;
+
+/**
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class TestHotKeyCache {
+    
+    private static byte[] b(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Test
+    public void testGetPutInvalidate() {
+        HotKeyCache cache = new HotKeyCache(1 << 20);
+        byte[] key = b("k1");
+        Assert.assertNull("testGetPutInvalidate miss", cache.get(key));
+        cache.put(key, b("v1"), cache.stamp(key));
+        Assert.assertArrayEquals("testGetPutInvalidate hit", b("v1"), cache.get(b("k1")));
+        Assert.assertEquals("testGetPutInvalidate string", "v1", cache.getString(key));
+        cache.invalidate(key);
+        Assert.assertNull("testGetPutInvalidate invalidate", cache.get(key));
+        Assert.assertEquals("testGetPutInvalidate hits", 2, cache.hitCount());
+        Assert.assertEquals("testGetPutInvalidate misses", 2, cache.missCount());
+    }
+    
+    @Test
+    public void testStaleStamp() {
+        HotKeyCache cache = new HotKeyCache(1 << 20);
+        byte[] key = b("k1");
+        long stamp = cache.stamp(key);
+        // a write lands between the database read and the cache put
+        cache.invalidate(key);
+        cache.put(key, b("old"), stamp);
+        Assert.assertNull("testStaleStamp", cache.get(key));
+        cache.invalidateAll();
+        Assert.assertEquals("testStaleStamp size", 0, cache.size());
+    }
+    
+    @Test
+    public void testBoundedWeight() {
+        long maxBytes = 64 * 1024;
+        HotKeyCache cache = new HotKeyCache(maxBytes, 4);
+        byte[] value = new byte[100];
+        for (int i = 0; i < 10000; i++) {
+            byte[] key = b("key" + i);
+            cache.get(key);
+            cache.get(key);
+            cache.put(key, value, cache.stamp(key));
+        }
+        Assert.assertTrue("testBoundedWeight weight", cache.weightedSize() <= maxBytes);
+        Assert.assertTrue("testBoundedWeight evictions", cache.evictionCount() > 0);
+    }
+    
+    @Test
+    public void testAdmission() {
+        HotKeyCache cache = new HotKeyCache(16 * 1024, 1);
+        byte[] value = new byte[100];
+        int hot = 50;
+        for (int r = 0; r < 20; r++) {
+            for (int i = 0; i < hot; i++) {
+                byte[] key = b("hot" + i);
+                if (cache.get(key) == null) {
+                    cache.put(key, value, cache.stamp(key));
+                }
+            }
+        }
+        // one-off scan of cold keys must not flush the hot set
+        for (int i = 0; i < 5000; i++) {
+            byte[] key = b("cold" + i);
+            if (cache.get(key) == null) {
+                cache.put(key, value, cache.stamp(key));
+            }
+        }
+        int cached = 0;
+        for (int i = 0; i < hot; i++) {
+            if (cache.get(b("hot" + i)) != null) {
+                cached++;
+            }
+        }
+        Assert.assertTrue("testAdmission hot kept " + cached, cached >= hot * 9 / 10);
+        Assert.assertTrue("testAdmission rejections", cache.rejectionCount() > 0);
+    }
+}
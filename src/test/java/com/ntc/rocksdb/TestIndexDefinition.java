@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ntc.rocksdb;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.*;
+
+/**
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class TestIndexDefinition {
+    
+    private static byte[] b(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static boolean startsWith(byte[] a, byte[] prefix) {
+        return a.length >= prefix.length && Arrays.equals(Arrays.copyOf(a, prefix.length), prefix);
+    }
+    
+    @Test
+    public void testEntryLayout() {
+        IndexDefinition def = new IndexDefinition("byCity", (k, v) -> v);
+        byte[] entry = def.entryKey(b("hanoi"), b("user:1"));
+        Assert.assertTrue("testEntryLayout prefix", startsWith(entry, def.prefix()));
+        Assert.assertTrue("testEntryLayout entry prefix", startsWith(entry, def.entryPrefix(b("hanoi"))));
+        Assert.assertFalse("testEntryLayout shorter index key", startsWith(entry, def.entryPrefix(b("han"))));
+        Assert.assertArrayEquals("testEntryLayout primary key", b("user:1"),
+                Arrays.copyOfRange(entry, def.entryPrefix(b("hanoi")).length, entry.length));
+    }
+    
+    @Test
+    public void testMarkerOutsideEntries() {
+        IndexDefinition def = new IndexDefinition("byCity", (k, v) -> v);
+        byte[] marker = def.builtMarkerKey();
+        Assert.assertEquals("testMarkerOutsideEntries first byte", 0, marker[0]);
+        Assert.assertTrue("testMarkerOutsideEntries before entries", BytesUtil.compare(marker, def.prefix()) < 0);
+        Assert.assertFalse("testMarkerOutsideEntries other index", startsWith(new IndexDefinition("byCityX", (k, v) -> v).prefix(), def.prefix()));
+    }
+    
+    @Test
+    public void testOfString() {
+        IndexDefinition def = IndexDefinition.ofString("upper", (s) -> s.isEmpty() ? null : s.toUpperCase());
+        Assert.assertArrayEquals("testOfString extract", b("ABC"), def.extract(b("k"), b("abc")));
+        Assert.assertNull("testOfString absent value", def.extract(b("k"), null));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ntc.rocksdb;
+
+import org.junit.*;
+
+/**
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class TestLatencyHistogram {
+    
+    @Test
+    public void testBuckets() {
+        long[] values = {0, 1, 31, 32, 33, 100, 1000, 123456, 987654321L, 1L << 40};
+        for (long v : values) {
+            int idx = LatencyHistogram.index(v);
+            long upper = LatencyHistogram.upperBound(idx);
+            Assert.assertTrue("testBuckets upper " + v, upper >= v);
+            Assert.assertTrue("testBuckets error " + v, upper - v <= Math.max(1, v / 16));
+            Assert.assertTrue("testBuckets monotonic " + v, v == 0 || LatencyHistogram.index(v - 1) <= idx);
+        }
+    }
+    
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 10000; i++) {
+            h.record(i * 1000L);
+        }
+        LatencyHistogram.Snapshot snap = h.snapshot();
+        Assert.assertEquals("testPercentiles count", 10000, snap.getCount());
+        Assert.assertEquals("testPercentiles max", 10000000L, snap.getMax());
+        Assert.assertEquals("testPercentiles mean", 5000500.0, snap.getMean(), 0.001);
+        long p50 = snap.getPercentile(0.5);
+        long p99 = snap.getPercentile(0.99);
+        Assert.assertTrue("testPercentiles p50 " + p50, Math.abs(p50 - 5000000L) <= 5000000L / 16);
+        Assert.assertTrue("testPercentiles p99 " + p99, Math.abs(p99 - 9900000L) <= 9900000L / 16);
+        h.reset();
+        Assert.assertEquals("testPercentiles reset", 0, h.snapshot().getCount());
+    }
+}
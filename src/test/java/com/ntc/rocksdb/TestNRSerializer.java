@@ -16,6 +16,9 @@
 
 package com.ntc.rocksdb;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import org.junit.*;
 
 /**
@@ -88,4 +91,33 @@ public class TestNRSerializer {
         String s2 = nrs.deserializeString(ss);
         Assert.assertEquals("testSDString", s1, s2);
     }
+    
+    @Test
+    public void testCompatDataOutputStream() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        dos.writeBoolean(true);
+        dos.writeInt(-123456789);
+        dos.writeLong(Long.MIN_VALUE + 7);
+        dos.writeFloat(-1.5F);
+        dos.writeDouble(Math.PI);
+        dos.close();
+        
+        byte[] bb = new byte[25];
+        int pos = nrs.serializeBool(true, bb, 0);
+        pos += nrs.serializeInt(-123456789, bb, pos);
+        pos += nrs.serializeLong(Long.MIN_VALUE + 7, bb, pos);
+        pos += nrs.serializeFloat(-1.5F, bb, pos);
+        pos += nrs.serializeDouble(Math.PI, bb, pos);
+        Assert.assertEquals("testCompatDataOutputStream size", bos.size(), pos);
+        Assert.assertArrayEquals("testCompatDataOutputStream bytes", bos.toByteArray(), bb);
+        Assert.assertArrayEquals("testCompatDataOutputStream int", nrs.serializeInt(-123456789), java.util.Arrays.copyOfRange(bb, 1, 5));
+    }
+    
+    @Test
+    public void testDeserializeInvalid() {
+        Assert.assertEquals("testDeserializeInvalid int", 0, nrs.deserializeInt(null));
+        Assert.assertEquals("testDeserializeInvalid long", 0L, nrs.deserializeLong(new byte[4]));
+        Assert.assertEquals("testDeserializeInvalid bool", false, nrs.deserializeBool(new byte[0]));
+    }
 }
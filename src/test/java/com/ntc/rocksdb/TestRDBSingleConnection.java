@@ -17,10 +17,15 @@
 package com.ntc.rocksdb;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.*;
+import org.rocksdb.FlushOptions;
+import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 
 /**
@@ -101,6 +106,31 @@ public class TestRDBSingleConnection {
         Assert.assertEquals("testPutGetDeleteByte3", null, rs3);
     }
     
+    @Test
+    public void testPutGetByteBuffer() throws RocksDBException {
+        DirectBufferPool pool = RDBSingleConnection.getBufferPool();
+        byte[] key = nrs.serializeString("bbkey");
+        byte[] value = nrs.serializeString("bbvalue-0123456789");
+        ByteBuffer bk = ByteBuffer.allocateDirect(key.length);
+        bk.put(key).flip();
+        ByteBuffer bv = pool.valueBuffer(value.length);
+        bv.put(value).flip();
+        conn.put(bk, bv);
+        
+        ByteBuffer small = ByteBuffer.allocateDirect(4);
+        int size = conn.get(key, small);
+        Assert.assertEquals("testPutGetByteBuffer size", value.length, size);
+        
+        ByteBuffer out = pool.valueBuffer(size);
+        Assert.assertEquals("testPutGetByteBuffer retry", value.length, conn.get(key, out));
+        byte[] rs = new byte[size];
+        out.get(rs);
+        Assert.assertEquals("testPutGetByteBuffer value", nrs.deserializeString(value), nrs.deserializeString(rs));
+        
+        conn.deleteByte(key);
+        Assert.assertEquals("testPutGetByteBuffer delete", RocksDB.NOT_FOUND, conn.get(key, out));
+    }
+    
     @Test
     public void testPutGetDeleteBatch() {
         try {
@@ -146,6 +176,111 @@ public class TestRDBSingleConnection {
         }
     }
     
+    @Test
+    public void testGetListByteArray() throws IOException, RocksDBException {
+        int n = 100;
+        byte[][] arrKey = new byte[n + 1][];
+        for (int i = 0; i < n; i++) {
+            arrKey[i] = nrs.serializeString("mkey" + (n - i));
+            conn.putByte(arrKey[i], nrs.serializeInt(n - i));
+        }
+        arrKey[n] = nrs.serializeString("mkey-missing");
+        
+        conn.setParallelMultiGet(16, 4);
+        byte[][] rs1 = conn.getListByte(arrKey);
+        conn.setParallelMultiGet(0, 0);
+        byte[][] rs2 = conn.getListByte(arrKey);
+        
+        Assert.assertEquals("testGetListByteArray size", arrKey.length, rs1.length);
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals("testGetListByteArray parallel", n - i, nrs.deserializeInt(rs1[i]));
+            Assert.assertEquals("testGetListByteArray single", n - i, nrs.deserializeInt(rs2[i]));
+        }
+        Assert.assertEquals("testGetListByteArray missing", null, rs1[n]);
+        conn.deleteBatchByte(Arrays.asList(arrKey));
+    }
+    
+    @Test
+    public void testProfiles() throws IOException {
+        Map<String, String> mapData = new LinkedHashMap<>();
+        mapData.put("profileSync", "sync");
+        mapData.put("profileFast", "fast");
+        conn.putBatch(mapData, WriteProfile.SYNC);
+        conn.putByte(nrs.serializeString("profileFast"), nrs.serializeString("fast2"), WriteProfile.FAST);
+        Assert.assertEquals("testProfiles sync", "sync", nrs.deserializeString(conn.getByte(nrs.serializeString("profileSync"), ReadProfile.SCAN)));
+        Assert.assertEquals("testProfiles fast", "fast2", nrs.deserializeString(conn.getByte(nrs.serializeString("profileFast"), ReadProfile.NO_VERIFY)));
+        conn.deleteBatch(new ArrayList<>(mapData.keySet()), WriteProfile.SYNC);
+        Assert.assertEquals("testProfiles delete", null, conn.get("profileSync"));
+    }
+    
+    @Test
+    public void testScan() throws IOException {
+        Map<String, String> mapData = new LinkedHashMap<>();
+        for (int i=0; i<20; i++) {
+            mapData.put(String.format("scan:%02d", i), "v" + i);
+        }
+        mapData.put("scanz", "outside");
+        conn.putBatch(mapData);
+        
+        List<String> keys = new ArrayList<>();
+        try (RDBIterator it = conn.scanPrefix("scan:")) {
+            while (it.hasNext()) {
+                keys.add(nrs.deserializeString(it.next().getKey()));
+            }
+        }
+        Assert.assertEquals("testScan prefix size", 20, keys.size());
+        Assert.assertEquals("testScan prefix first", "scan:00", keys.get(0));
+        try (RDBIterator it = conn.scanPrefix((String) null)) {
+            Assert.assertTrue("testScan null prefix", it.stream().count() >= 20);
+        }
+        
+        try (RDBIterator it = conn.scanReverse(nrs.serializeString("scan:05"), nrs.serializeString("scan:10"))) {
+            Assert.assertEquals("testScan reverse", 5L, it.stream().count());
+        }
+        try (RDBIterator it = conn.scanReverse(nrs.serializeString("scan:05"), nrs.serializeString("scan:10"))) {
+            Assert.assertEquals("testScan reverse first", "scan:09", nrs.deserializeString(it.next().getKey()));
+        }
+        
+        byte[] from = nrs.serializeString("scan:");
+        byte[] to = BytesUtil.prefixEnd(from);
+        byte[] token = null;
+        int pages = 0;
+        int total = 0;
+        do {
+            ScanPage page = conn.scanPage(from, to, token, 6, false);
+            total += page.getItems().size();
+            token = page.getNextToken();
+            pages++;
+        } while (token != null);
+        Assert.assertEquals("testScan page total", 20, total);
+        Assert.assertEquals("testScan pages", 4, pages);
+        
+        conn.deleteBatch(new ArrayList<>(mapData.keySet()));
+    }
+    
+    @Test
+    public void testParallelScan() throws Exception {
+        Map<String, String> mapData = new LinkedHashMap<>();
+        for (int i=0; i<500; i++) {
+            mapData.put("pscan" + i, "v" + i);
+        }
+        conn.putBatch(mapData);
+        try (FlushOptions fo = new FlushOptions().setWaitForFlush(true)) {
+            conn.getDb().flush(fo);
+        }
+        
+        final Set<String> seen = Collections.synchronizedSet(new HashSet<String>());
+        long count = conn.parallelScan(4, (kv) -> {
+            String key = nrs.deserializeString(kv.getKey());
+            if (key.startsWith("pscan")) {
+                seen.add(key);
+            }
+        });
+        Assert.assertEquals("testParallelScan seen", mapData.keySet(), seen);
+        Assert.assertTrue("testParallelScan count", count >= mapData.size());
+        conn.deleteBatch(new ArrayList<>(mapData.keySet()));
+    }
+    
     @Test
     public void testMultiConnDB() {
         try {
@@ -176,6 +311,490 @@ public class TestRDBSingleConnection {
         }
     }
     
+    @Test
+    public void testMergeCounter() throws Exception {
+        final String key = "mergeCounter";
+        final int k = 4;
+        final int n = 1000;
+        conn.delete(key);
+        List<Thread> listTh = new ArrayList<>();
+        for (int i=0; i<k; i++) {
+            listTh.add(new Thread(() -> {
+                try {
+                    for (int j=0; j<n; j++) {
+                        conn.addCounter(key, 1);
+                    }
+                } catch (RocksDBException ex) {
+                    ex.printStackTrace();
+                }
+            }));
+        }
+        for (Thread t : listTh) {
+            t.start();
+        }
+        for (Thread t : listTh) {
+            t.join();
+        }
+        Assert.assertEquals("testMergeCounter", (long) k*n, conn.getCounter(key));
+        
+        Map<String, Long> mapDelta = new LinkedHashMap<>();
+        mapDelta.put(key, -10L);
+        conn.addCounterBatch(mapDelta);
+        Assert.assertEquals("testMergeCounter batch", (long) k*n - 10, conn.getCounter(key));
+        conn.delete(key);
+        Assert.assertEquals("testMergeCounter delete", 0L, conn.getCounter(key));
+    }
+    
+    @Test
+    public void testUpdateCompareAndSet() throws Exception {
+        checkUpdateCompareAndSet(conn);
+        
+        String txnPath = "./db_txn";
+        RDBSingleConnection txnConn = RDBSingleConnection.getInstance(txnPath, new RDBConfig().setOptimisticTransaction(true));
+        try {
+            checkUpdateCompareAndSet(txnConn);
+        } finally {
+            txnConn.close();
+            Files.walk(new File(txnPath).toPath()).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+    
+    private void checkUpdateCompareAndSet(final RDBSingleConnection c) throws Exception {
+        final byte[] key = nrs.serializeString("rmwKey");
+        c.deleteByte(key);
+        Assert.assertEquals("testCAS absent", true, c.compareAndSet(key, null, nrs.serializeInt(1)));
+        Assert.assertEquals("testCAS mismatch", false, c.compareAndSet(key, nrs.serializeInt(2), nrs.serializeInt(3)));
+        Assert.assertEquals("testCAS match", true, c.compareAndSet(key, nrs.serializeInt(1), nrs.serializeInt(5)));
+        
+        final int k = 4;
+        final int n = 500;
+        List<Thread> listTh = new ArrayList<>();
+        for (int i=0; i<k; i++) {
+            listTh.add(new Thread(() -> {
+                try {
+                    for (int j=0; j<n; j++) {
+                        c.update(key, (cur) -> nrs.serializeInt(nrs.deserializeInt(cur) + 1));
+                    }
+                } catch (RocksDBException ex) {
+                    ex.printStackTrace();
+                }
+            }));
+        }
+        for (Thread t : listTh) {
+            t.start();
+        }
+        for (Thread t : listTh) {
+            t.join();
+        }
+        Assert.assertEquals("testUpdate", 5 + k*n, nrs.deserializeInt(c.getByte(key)));
+        c.update(key, (cur) -> null);
+        Assert.assertEquals("testUpdate delete", null, c.getByte(key));
+    }
+    
+    @Test
+    public void testAsyncWriter() throws Exception {
+        final AtomicInteger flushed = new AtomicInteger();
+        conn.enableAsyncWriter(new AsyncWriterConfig().setMaxBatchCount(64).setMaxDelayMicros(500).setSync(true)
+                .setFlushListener((count, bytes, elapsedNanos, error) -> flushed.addAndGet(count)));
+        int n = 200;
+        List<CompletableFuture<Void>> listFuture = new ArrayList<>();
+        for (int i=0; i<n; i++) {
+            listFuture.add(conn.putAsync("async" + i, "value" + i));
+        }
+        CompletableFuture.allOf(listFuture.toArray(new CompletableFuture[0])).get();
+        Assert.assertEquals("testAsyncWriter flushed", n, flushed.get());
+        Assert.assertEquals("testAsyncWriter value", "value" + (n - 1), conn.get("async" + (n - 1)));
+        
+        listFuture.clear();
+        for (int i=0; i<n; i++) {
+            listFuture.add(conn.deleteAsync("async" + i));
+        }
+        CompletableFuture.allOf(listFuture.toArray(new CompletableFuture[0])).get();
+        Assert.assertEquals("testAsyncWriter delete", null, conn.get("async0"));
+    }
+    
+    @Test
+    public void testPreset() throws Exception {
+        String presetPath = "./db_preset";
+        RDBSingleConnection presetConn = RDBSingleConnection.getInstance(presetPath, new RDBConfig().setPreset(WorkloadPreset.POINT_LOOKUP));
+        try {
+            Assert.assertNotNull("testPreset shared cache", SharedCache.getBlockCache());
+            presetConn.put("presetKey", "presetValue");
+            Assert.assertEquals("testPreset get", "presetValue", presetConn.get("presetKey"));
+        } finally {
+            presetConn.close();
+            Files.walk(new File(presetPath).toPath()).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+        Assert.assertNull("testPreset released", SharedCache.getBlockCache());
+    }
+    
+    @Test
+    public void testTypedStore() throws Exception {
+        TypedStore<String, Double> store = new TypedStore<>(conn, Codecs.STRING, Codecs.DOUBLE);
+        store.put("typedKey", 3.5);
+        Assert.assertEquals("testTypedStore get", Double.valueOf(3.5), store.get("typedKey"));
+        store.delete("typedKey");
+        Assert.assertEquals("testTypedStore delete", null, store.get("typedKey"));
+        
+        LongKeyStore<String> longStore = new LongKeyStore<>(conn, Codecs.STRING);
+        for (long i = -5; i < 5; i++) {
+            longStore.put(i, "v" + i);
+        }
+        Assert.assertEquals("testTypedStore long get", "v-3", longStore.get(-3));
+        final List<Long> listKey = new ArrayList<>();
+        longStore.forEach(-5, 5, (k, v) -> listKey.add(k));
+        Assert.assertEquals("testTypedStore long order", Arrays.asList(-5L, -4L, -3L, -2L, -1L, 0L, 1L, 2L, 3L, 4L), listKey);
+        for (long i = -5; i < 5; i++) {
+            longStore.delete(i);
+        }
+        
+        IntValueStore<String> intStore = new IntValueStore<>(conn, Codecs.STRING);
+        intStore.put("typedInt", 40);
+        Assert.assertEquals("testTypedStore int addAndGet", 42, intStore.addAndGet("typedInt", 2));
+        Assert.assertEquals("testTypedStore incInt compat", 43, conn.incInt("typedInt", 1));
+        Assert.assertEquals("testTypedStore int get", 43, intStore.get("typedInt", 0));
+        intStore.delete("typedInt");
+        Assert.assertEquals("testTypedStore int default", -1, intStore.get("typedInt", -1));
+    }
+    
+    @Test
+    public void testBulkLoader() throws Exception {
+        int n = 5000;
+        long count;
+        // left by a load that crashed before close
+        File workRoot = new File(new File(dbPath).getAbsolutePath() + ".bulkload");
+        File leftover = new File(workRoot, "bulkload-crashed");
+        leftover.mkdirs();
+        Files.write(new File(leftover, "run-0").toPath(), new byte[16]);
+        try (BulkLoader loader = new BulkLoader(conn).setMemoryBudget(64 * 1024).setParallelism(3)) {
+            // reverse order, spread over several spilled runs
+            for (int i = n - 1; i >= 0; i--) {
+                loader.add(String.format("bulk%05d", i), "old" + i);
+            }
+            loader.add("bulk00007", "new7");
+            count = loader.finish();
+            Assert.assertTrue("testBulkLoader files", loader.getFileCount() > 0);
+        }
+        Assert.assertFalse("testBulkLoader leftover deleted", leftover.exists());
+        Assert.assertEquals("testBulkLoader work dirs removed", 0, workRoot.list().length);
+        workRoot.delete();
+        Assert.assertEquals("testBulkLoader count", n, count);
+        Assert.assertEquals("testBulkLoader get", "old4321", conn.get("bulk04321"));
+        Assert.assertEquals("testBulkLoader last wins", "new7", conn.get("bulk00007"));
+        int scanned = 0;
+        try (RDBIterator it = conn.scanPrefix("bulk")) {
+            while (it.hasNext()) {
+                it.next();
+                scanned++;
+            }
+        }
+        Assert.assertEquals("testBulkLoader scan", n, scanned);
+        List<String> listKey = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            listKey.add(String.format("bulk%05d", i));
+        }
+        conn.deleteBatch(listKey);
+    }
+    
+    @Test
+    public void testDeleteRange() throws Exception {
+        Map<String, String> mapData = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            mapData.put(String.format("drA%03d", i), "v" + i);
+            mapData.put(String.format("drB%03d", i), "v" + i);
+        }
+        conn.putBatch(mapData);
+        conn.deleteRange(nrs.serializeString("drA010"), nrs.serializeString("drA020"));
+        Assert.assertEquals("testDeleteRange before", "v9", conn.get("drA009"));
+        Assert.assertEquals("testDeleteRange inside", null, conn.get("drA010"));
+        Assert.assertEquals("testDeleteRange end excluded", "v20", conn.get("drA020"));
+        
+        conn.deletePrefix(nrs.serializeString("drA"), true);
+        Assert.assertEquals("testDeleteRange prefix", null, conn.get("drA050"));
+        Assert.assertEquals("testDeleteRange other prefix", "v50", conn.get("drB050"));
+        conn.deletePrefix("drB");
+        Assert.assertEquals("testDeleteRange prefix B", null, conn.get("drB050"));
+    }
+    
+    @Test
+    public void testTtl() throws Exception {
+        String ttlPath = "./db_ttl";
+        try {
+            conn.putTtl("session", "alive", 600);
+            Assert.fail("testTtl putTtl without TTL mode");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+        try {
+            RDBSingleConnection.getInstance(ttlPath, new RDBConfig().setTtlSeconds(3600).setHotKeyCacheBytes(1 << 20));
+            Assert.fail("testTtl hot key cache");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        RDBSingleConnection ttlConn = RDBSingleConnection.getInstance(ttlPath, new RDBConfig().setTtlSeconds(3600));
+        try {
+            ttlConn.putTtl("session", "alive", 600);
+            Assert.assertEquals("testTtl alive", "alive", ttlConn.getTtl("session"));
+            Assert.assertEquals("testTtl get alive", "alive", ttlConn.get("session"));
+            ttlConn.putTtl("session", "gone", 0);
+            Assert.assertEquals("testTtl expired", null, ttlConn.getTtl("session"));
+            Assert.assertEquals("testTtl get expired", null, ttlConn.get("session"));
+            Assert.assertEquals("testTtl list expired", null, ttlConn.getList(Arrays.asList("session")).get("session"));
+            try (RDBIterator it = ttlConn.scanPrefix("session")) {
+                Assert.assertFalse("testTtl scan expired", it.hasNext());
+            }
+            
+            // a plain value that happens to start with the TtlValue magic
+            byte[] lookalike = TtlValue.wrap(nrs.serializeString("x"), 0, 0);
+            ttlConn.putByte(nrs.serializeString("lookalike"), lookalike);
+            Assert.assertArrayEquals("testTtl lookalike", lookalike, ttlConn.getByte(nrs.serializeString("lookalike")));
+            try {
+                ttlConn.putTtl("session", "too long", 7200);
+                Assert.fail("testTtl longer than database TTL");
+            } catch (IllegalArgumentException ex) {
+                // expected
+            }
+        } finally {
+            ttlConn.close();
+            Files.walk(new File(ttlPath).toPath()).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+    
+    @Test
+    public void testSnapshotCheckpointBackup() throws Exception {
+        conn.put("snapKey", "v1");
+        String seen = conn.withSnapshot((view) -> {
+            conn.put("snapKey", "v2");
+            try {
+                return view.get("snapKey");
+            } catch (RocksDBException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        Assert.assertEquals("testSnapshot isolated", "v1", seen);
+        Assert.assertEquals("testSnapshot latest", "v2", conn.get("snapKey"));
+        
+        String cpPath = "./db_checkpoint";
+        String backupPath = "./db_backup";
+        String restorePath = "./db_restore";
+        try {
+            conn.createCheckpoint(cpPath);
+            Assert.assertTrue("testCheckpoint CURRENT", new File(cpPath, "CURRENT").exists());
+            
+            int id1 = conn.createBackup(backupPath, 8L << 20, 2);
+            conn.put("snapKey", "v3");
+            int id2 = conn.createBackup(backupPath, 8L << 20, 2);
+            Assert.assertTrue("testBackup incremental id", id2 > id1);
+            Assert.assertEquals("testBackup info", 2, RDBSingleConnection.getBackupInfo(backupPath).size());
+            
+            RDBSingleConnection.restoreLatestBackup(backupPath, restorePath, 0);
+            RDBSingleConnection restored = RDBSingleConnection.getInstance(restorePath);
+            try {
+                Assert.assertEquals("testBackup restore", "v3", restored.get("snapKey"));
+            } finally {
+                restored.close();
+            }
+        } finally {
+            conn.delete("snapKey");
+            for (String path : Arrays.asList(cpPath, backupPath, restorePath)) {
+                if (new File(path).exists()) {
+                    Files.walk(new File(path).toPath()).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testReadOnly() throws Exception {
+        conn.put("modeKey", "v1");
+        RDBSingleConnection ro = RDBSingleConnection.openReadOnly(dbPath);
+        try {
+            Assert.assertEquals("testReadOnly mode", OpenMode.READ_ONLY, ro.getOpenMode());
+            Assert.assertEquals("testReadOnly get", "v1", ro.get("modeKey"));
+            Assert.assertSame("testReadOnly registry", ro, RDBSingleConnection.openReadOnly(dbPath));
+            ro.put("modeKey", "rejected");
+            Assert.assertEquals("testReadOnly write rejected", "v1", conn.get("modeKey"));
+        } finally {
+            ro.close();
+            conn.delete("modeKey");
+        }
+        RDBSingleConnection reopened = RDBSingleConnection.openReadOnly(dbPath);
+        try {
+            Assert.assertNotSame("testReadOnly close deregisters", ro, reopened);
+        } finally {
+            reopened.close();
+        }
+    }
+    
+    @Test
+    public void testAsyncConnection() throws Exception {
+        RDBAsyncConnection async = new RDBAsyncConnection(conn, new RDBAsyncConfig().setReadThreads(2).setWriteThreads(1));
+        try {
+            async.putAsync("asyncKey", "v1").get();
+            Assert.assertEquals("testAsyncConnection get", "v1", async.getAsync("asyncKey").get());
+            
+            Map<byte[], byte[]> puts = new HashMap<>();
+            puts.put(nrs.serializeString("asyncKey2"), nrs.serializeString("v2"));
+            async.writeBatchAsync(puts, Arrays.asList(nrs.serializeString("asyncKey"))).get();
+            Map<String, String> rs = async.multiGetAsync(Arrays.asList("asyncKey", "asyncKey2")).get();
+            Assert.assertEquals("testAsyncConnection batch delete", null, rs.get("asyncKey"));
+            Assert.assertEquals("testAsyncConnection batch put", "v2", rs.get("asyncKey2"));
+            
+            async.deleteAsync("asyncKey2").get();
+            Assert.assertEquals("testAsyncConnection delete", null, async.getByteAsync(nrs.serializeString("asyncKey2")).get());
+        } finally {
+            async.close();
+        }
+    }
+    
+    @Test
+    public void testSecondaryIndex() throws Exception {
+        conn.put("user:1", "{\"city\":\"hanoi\"}");
+        conn.put("user:2", "{\"city\":\"saigon\"}");
+        IndexDefinition byCity = IndexDefinition.ofString("byCity", (json) -> {
+            int i = json.indexOf("\"city\":\"");
+            return i >= 0 ? json.substring(i + 8, json.indexOf('"', i + 8)) : null;
+        });
+        conn.registerIndex(byCity, 2);
+        try {
+            // existing entries are indexed by the build
+            Assert.assertEquals("testSecondaryIndex rebuild", Arrays.asList("user:1"), new ArrayList<>(conn.lookupIndex("byCity", "hanoi", 10).keySet()));
+            
+            Map<String, String> mapData = new HashMap<>();
+            mapData.put("user:3", "{\"city\":\"hanoi\"}");
+            mapData.put("user:1", "{\"city\":\"hue\"}");
+            conn.putBatch(mapData);
+            Assert.assertEquals("testSecondaryIndex batch", Arrays.asList("user:3"), new ArrayList<>(conn.lookupIndex("byCity", "hanoi", 10).keySet()));
+            Assert.assertEquals("testSecondaryIndex moved", "{\"city\":\"hue\"}", conn.lookupIndex("byCity", "hue", 10).get("user:1"));
+            
+            conn.delete("user:3");
+            Assert.assertTrue("testSecondaryIndex delete", conn.lookupIndex("byCity", "hanoi", 10).isEmpty());
+            Assert.assertEquals("testSecondaryIndex limit", 1, conn.lookupIndex("byCity", "saigon", 1).size());
+            Assert.assertTrue("testSecondaryIndex prefix of key", conn.lookupIndex("byCity", "sai", 10).isEmpty());
+            
+            // write paths that can not maintain the index are rejected
+            try {
+                conn.addCounter("user:4", 1);
+                Assert.fail("testSecondaryIndex counter rejected");
+            } catch (IllegalStateException ex) {
+                // expected
+            }
+            try {
+                new BulkLoader(conn);
+                Assert.fail("testSecondaryIndex bulk loader rejected");
+            } catch (IllegalStateException ex) {
+                // expected
+            }
+        } finally {
+            conn.dropIndex("byCity");
+            conn.deleteBatch(Arrays.asList("user:1", "user:2", "user:3"));
+        }
+    }
+    
+    @Test
+    public void testValueCompression() throws Exception {
+        String path = "./db_compress";
+        byte[] legacyNone = new byte[]{ValueCodec.MAGIC_0, ValueCodec.MAGIC_1, ValueCodec.NONE, 0, 0, 0, 1, 'a', 'b', 'c'};
+        byte[] legacyDict = new byte[]{ValueCodec.MAGIC_0, ValueCodec.MAGIC_1, ValueCodec.DEFLATE_DICT, 0, 0, 0, 3, 1, 2, 3, 4, 'x'};
+        RDBSingleConnection raw = RDBSingleConnection.getInstance(path);
+        raw.putByte(nrs.serializeString("legacyNone"), legacyNone);
+        raw.putByte(nrs.serializeString("legacyDict"), legacyDict);
+        raw.close();
+        RDBSingleConnection cc = RDBSingleConnection.getInstance(path, new RDBConfig().setValueCompression(new ValueCompression().setMinSize(64)));
+        try {
+            Assert.assertArrayEquals("testValueCompression legacy none", legacyNone, cc.getByte(nrs.serializeString("legacyNone")));
+            Assert.assertArrayEquals("testValueCompression legacy dict", legacyDict, cc.getByte(nrs.serializeString("legacyDict")));
+            
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 50; i++) {
+                sb.append("{\"id\":").append(i).append(",\"status\":\"active\",\"city\":\"hanoi\"}");
+            }
+            String big = sb.toString();
+            cc.put("big", big);
+            cc.put("small", "v1");
+            Assert.assertEquals("testValueCompression get", big, cc.get("big"));
+            Assert.assertEquals("testValueCompression small", "v1", cc.get("small"));
+            byte[] stored = cc.getDb().get(nrs.serializeString("big"));
+            Assert.assertTrue("testValueCompression stored smaller", stored.length < nrs.serializeString(big).length);
+            Assert.assertEquals("testValueCompression decodeValue", big, nrs.deserializeString(cc.decodeValue(stored)));
+            
+            for (int i = 0; i < 20; i++) {
+                cc.put("doc:" + i, "{\"id\":" + i + ",\"status\":\"active\",\"city\":\"hanoi\",\"tags\":[\"a\",\"b\"]}");
+            }
+            Assert.assertTrue("testValueCompression train", cc.trainCompressionDictionary(20, 1024) >= 0);
+            cc.put("doc:new", "{\"id\":99,\"status\":\"active\",\"city\":\"hanoi\",\"tags\":[\"a\",\"b\"]}");
+            Assert.assertEquals("testValueCompression dict get", "{\"id\":99,\"status\":\"active\",\"city\":\"hanoi\",\"tags\":[\"a\",\"b\"]}", cc.get("doc:new"));
+            Assert.assertEquals("testValueCompression old value", big, cc.get("big"));
+        } finally {
+            cc.close();
+            Files.walk(new File(path).toPath()).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+    
+    @Test
+    public void testCompactionControl() throws Exception {
+        String path = "./db_compaction";
+        RDBSingleConnection cc = RDBSingleConnection.getInstance(path, new RDBConfig()
+                .setCompaction(new CompactionConfig().setCheckIntervalMillis(50).setBackpressureWaitMillis(100)));
+        try {
+            Map<String, String> mapData = new HashMap<>();
+            for (int i = 0; i < 1000; i++) {
+                mapData.put("compact:" + i, "value" + i);
+            }
+            cc.putBatch(mapData);
+            Assert.assertNotNull("testCompactionControl shared limiter", SharedRateLimiter.getRateLimiter());
+            cc.compactRange(null, null);
+            cc.compactAll();
+            Assert.assertEquals("testCompactionControl data kept", "value7", cc.get("compact:7"));
+            Assert.assertTrue("testCompactionControl pending bytes", cc.getPendingCompactionBytes() >= 0);
+            Assert.assertFalse("testCompactionControl no backpressure", cc.isWriteBackpressure());
+            Assert.assertTrue("testCompactionControl await", cc.awaitBackpressure(10));
+        } finally {
+            cc.close();
+            Files.walk(new File(path).toPath()).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+        Assert.assertNull("testCompactionControl limiter released", SharedRateLimiter.getRateLimiter());
+    }
+    
+    @Test
+    public void testNamespace() throws Exception {
+        String nsName = "test_ns";
+        Namespace ns = conn.createNamespace(nsName, new NamespaceOptions().setBloomBitsPerKey(10));
+        Assert.assertSame("testNamespace get", ns, conn.getNamespace(nsName));
+        Assert.assertTrue("testNamespace list", conn.listNamespaces().contains(nsName));
+        
+        ns.put("nsKey", "nsValue");
+        Assert.assertEquals("testNamespace get", "nsValue", ns.get("nsKey"));
+        Assert.assertEquals("testNamespace isolated", null, conn.get("nsKey"));
+        
+        Map<String, String> mapData = new LinkedHashMap<>();
+        mapData.put("nsKey1", "v1");
+        mapData.put("nsKey2", "v2");
+        ns.putBatch(mapData);
+        Assert.assertEquals("testNamespace getList", mapData, ns.getList(new ArrayList<>(mapData.keySet())));
+        int count = 0;
+        try (RDBIterator it = ns.scanPrefix(nrs.serializeString("nsKey"))) {
+            while (it.hasNext()) {
+                it.next();
+                count++;
+            }
+        }
+        Assert.assertEquals("testNamespace scan", 3, count);
+        
+        ns.truncate();
+        Assert.assertEquals("testNamespace truncate", null, ns.get("nsKey1"));
+        
+        conn.dropNamespace(nsName);
+        Assert.assertEquals("testNamespace drop", null, conn.getNamespace(nsName));
+        Assert.assertTrue("testNamespace dropped flag", ns.isDropped());
+        try {
+            ns.getHandle();
+            Assert.fail("testNamespace dropped handle");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+    
     private static final String keyCounter = "counter";
     
     private class CounterRunable implements Runnable {
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ntc.rocksdb;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.*;
+
+/**
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class TestShardedRDB {
+    private static List<String> shardPaths = Arrays.asList("./db_shard_0", "./db_shard_1", "./db_shard_2");
+    private static ShardedRDB sharded;
+    
+    @BeforeClass
+    public static void init() {
+        try {
+            sharded = new ShardedRDB(shardPaths);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+    
+    @AfterClass
+    public static void clean() {
+        try {
+            sharded.close();
+            for (String path : shardPaths) {
+                Files.walk(new File(path).toPath()).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+    
+    @Test
+    public void testBatchAndGetList() throws Exception {
+        Map<String, String> mapData = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String key = String.format("user:%04d", i);
+            mapData.put(key, "v" + i);
+            keys.add(key);
+        }
+        sharded.putBatch(mapData);
+        
+        int[] counts = new int[sharded.getShardCount()];
+        for (String key : keys) {
+            counts[sharded.shardOf(key.getBytes(StandardCharsets.UTF_8))]++;
+        }
+        for (int c : counts) {
+            Assert.assertTrue("testBatchAndGetList spread", c > 0);
+        }
+        
+        Map<String, String> rs = sharded.getList(keys);
+        Assert.assertEquals("testBatchAndGetList size", 300, rs.size());
+        Assert.assertEquals("testBatchAndGetList order", keys, new ArrayList<>(rs.keySet()));
+        Assert.assertEquals("testBatchAndGetList value", "v42", rs.get("user:0042"));
+        Assert.assertEquals("testBatchAndGetList get", "v7", sharded.get("user:0007"));
+        
+        sharded.deleteBatch(keys);
+        Assert.assertEquals("testBatchAndGetList deleted", null, sharded.get("user:0042"));
+    }
+    
+    @Test
+    public void testMergedScan() throws Exception {
+        Map<String, String> mapData = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            mapData.put(String.format("scan:%03d", i), "v" + i);
+        }
+        sharded.putBatch(mapData);
+        try (ShardedIterator it = sharded.scanPrefix("scan:")) {
+            int n = 0;
+            while (it.hasNext()) {
+                KV kv = it.next();
+                Assert.assertEquals("testMergedScan order", String.format("scan:%03d", n), new String(kv.getKey(), StandardCharsets.UTF_8));
+                n++;
+            }
+            Assert.assertEquals("testMergedScan count", 100, n);
+        }
+        try (ShardedIterator it = sharded.scanReverse("scan:".getBytes(StandardCharsets.UTF_8), "scan;".getBytes(StandardCharsets.UTF_8))) {
+            Assert.assertEquals("testMergedScan reverse", "scan:099", new String(it.next().getKey(), StandardCharsets.UTF_8));
+        }
+        sharded.deleteBatch(new ArrayList<>(mapData.keySet()));
+    }
+    
+    @Test
+    public void testSharedClose() throws Exception {
+        // a caller closing its own handle on a shard must not close it under the ShardedRDB
+        RDBSingleConnection direct = RDBSingleConnection.getInstance("./db_shard_0");
+        direct.close();
+        RDBSingleConnection again = RDBSingleConnection.getInstance("./db_shard_0");
+        Assert.assertSame("testSharedClose same instance", direct, again);
+        again.put("shared:key", "v1");
+        Assert.assertEquals("testSharedClose shard still open", "v1", again.get("shared:key"));
+        again.delete("shared:key");
+        again.close();
+    }
+    
+    @Test
+    public void testLayoutMismatch() {
+        try {
+            new ShardedRDB(Arrays.asList("./db_shard_1", "./db_shard_0"));
+            Assert.fail("testLayoutMismatch must reject reordered shards");
+        } catch (IllegalStateException ex) {
+            Assert.assertTrue("testLayoutMismatch message", ex.getMessage().contains("Shard layout mismatch"));
+        } catch (Exception ex) {
+            Assert.fail("testLayoutMismatch " + ex);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ntc.rocksdb;
+import org.junit.*;
+
+/**
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class TestStripedLock {
+    
+    @Test
+    public void testSize() {
+        Assert.assertEquals("testSize power of two", 256, new StripedLock(256).size());
+        Assert.assertEquals("testSize round up", 512, new StripedLock(300).size());
+        Assert.assertEquals("testSize min", 1, new StripedLock(0).size());
+        Assert.assertEquals("testSize clamp", StripedLock.MAX_STRIPES, new StripedLock(100000).size());
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ntc.rocksdb;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.*;
+
+/**
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class TestTtlValue {
+    
+    @Test
+    public void testWrapUnwrap() {
+        long now = 1800000000000L;
+        byte[] value = "session".getBytes(StandardCharsets.UTF_8);
+        byte[] stored = TtlValue.wrap(value, 60, now);
+        Assert.assertEquals("testWrapUnwrap size", value.length + TtlValue.HEADER_SIZE, stored.length);
+        Assert.assertEquals("testWrapUnwrap expiry", now / 1000 + 60, TtlValue.expirySeconds(stored));
+        Assert.assertArrayEquals("testWrapUnwrap alive", value, TtlValue.unwrap(stored, now + 59000));
+        Assert.assertNull("testWrapUnwrap expired", TtlValue.unwrap(stored, now + 60000));
+    }
+    
+    @Test
+    public void testNoHeader() {
+        byte[] value = "plain".getBytes(StandardCharsets.UTF_8);
+        Assert.assertFalse("testNoHeader", TtlValue.hasHeader(value));
+        Assert.assertArrayEquals("testNoHeader never expires", value, TtlValue.unwrap(value, Long.MAX_VALUE / 2));
+        Assert.assertNull("testNoHeader null", TtlValue.unwrap(null, 0));
+    }
+    
+    @Test
+    public void testNoExpiry() {
+        long now = 1800000000000L;
+        byte[] raw = TtlValue.wrap("looks wrapped".getBytes(StandardCharsets.UTF_8), 0, now);
+        byte[] stored = TtlValue.wrapNoExpiry(raw);
+        Assert.assertEquals("testNoExpiry expiry", Long.MAX_VALUE, TtlValue.expirySeconds(stored));
+        Assert.assertArrayEquals("testNoExpiry unwrap", raw, TtlValue.unwrap(stored, Long.MAX_VALUE / 2));
+    }
+}
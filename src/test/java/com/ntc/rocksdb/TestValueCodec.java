@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 nghiatc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ntc.rocksdb;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.*;
+
+/**
+ *
+ * @author nghiatc
+ * @since Oct 17, 2026
+ */
+public class TestValueCodec {
+    
+    private static byte[] doc(int i, int items) {
+        StringBuilder sb = new StringBuilder("{\"id\":").append(i).append(",\"items\":[");
+        for (int j = 0; j < items; j++) {
+            sb.append("{\"sku\":\"SKU-").append(i * 31 + j).append("\",\"status\":\"delivered\",\"warehouse\":\"north-east\"},");
+        }
+        return sb.append("{}]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Test
+    public void testRoundTrip() {
+        ValueCodec codec = new ValueCodec(new ValueCompression().setMinSize(256));
+        byte[] value = doc(1, 40);
+        byte[] stored = codec.encode(value);
+        Assert.assertTrue("testRoundTrip header", ValueCodec.hasHeader(stored));
+        Assert.assertTrue("testRoundTrip smaller", stored.length < value.length / 2);
+        Assert.assertArrayEquals("testRoundTrip decode", value, codec.decode(stored));
+        
+        byte[] small = "small".getBytes(StandardCharsets.UTF_8);
+        Assert.assertSame("testRoundTrip small untouched", small, codec.encode(small));
+        Assert.assertSame("testRoundTrip legacy untouched", small, codec.decode(small));
+    }
+    
+    @Test
+    public void testMagicEscape() {
+        ValueCodec codec = new ValueCodec(new ValueCompression());
+        byte[] raw = new byte[]{ValueCodec.MAGIC_0, ValueCodec.MAGIC_1, ValueCodec.DEFLATE, 0, 0, 0, 9, 1, 2};
+        byte[] stored = codec.encode(raw);
+        Assert.assertEquals("testMagicEscape format", ValueCodec.NONE, stored[2]);
+        Assert.assertArrayEquals("testMagicEscape decode", raw, codec.decode(stored));
+        // written raw before compression was enabled, not a valid stream
+        Assert.assertArrayEquals("testMagicEscape legacy", raw, codec.decode(raw));
+    }
+    
+    @Test
+    public void testDictionary() {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            samples.add(doc(i, 3));
+        }
+        byte[] dict = ValueCompression.trainDictionary(samples, 4096);
+        Assert.assertTrue("testDictionary size", dict.length > 0 && dict.length <= 4096);
+        
+        // small documents share little within themselves, the dictionary brings the common parts
+        ValueCodec plain = new ValueCodec(new ValueCompression().setMinSize(64));
+        ValueCodec withDict = new ValueCodec(new ValueCompression().setMinSize(64));
+        withDict.addDictionary(dict, true);
+        byte[] value = doc(1000, 3);
+        byte[] stored = withDict.encode(value);
+        Assert.assertEquals("testDictionary format", ValueCodec.DEFLATE_DICT, stored[2]);
+        Assert.assertTrue("testDictionary smaller than plain", stored.length < plain.encode(value).length);
+        Assert.assertArrayEquals("testDictionary decode", value, withDict.decode(stored));
+        Assert.assertSame("testDictionary missing dictionary returns stored", stored, plain.decode(stored));
+    }
+    
+    @Test
+    public void testLegacyRawValues() {
+        // written raw before compression was enabled, they only look like headers
+        byte[] none = new byte[]{ValueCodec.MAGIC_0, ValueCodec.MAGIC_1, ValueCodec.NONE, 0, 0, 0, 1, 'a', 'b', 'c'};
+        byte[] dict = new byte[]{ValueCodec.MAGIC_0, ValueCodec.MAGIC_1, ValueCodec.DEFLATE_DICT, 0, 0, 0, 3, 1, 2, 3, 4, 'x'};
+        byte[] deflate = new byte[]{ValueCodec.MAGIC_0, ValueCodec.MAGIC_1, ValueCodec.DEFLATE, 0, 0, 0, 3, 'x', 'y', 'z'};
+        ValueCodec codec = new ValueCodec(new ValueCompression());
+        Assert.assertSame("testLegacyRawValues none", none, codec.decode(none));
+        Assert.assertSame("testLegacyRawValues dict", dict, codec.decode(dict));
+        Assert.assertSame("testLegacyRawValues deflate", deflate, codec.decode(deflate));
+        
+        // the same bytes written after compression was enabled are escaped and round trip
+        Assert.assertArrayEquals("testLegacyRawValues none escaped", none, codec.decode(codec.encode(none)));
+        Assert.assertArrayEquals("testLegacyRawValues dict escaped", dict, codec.decode(codec.encode(dict)));
+    }
+}